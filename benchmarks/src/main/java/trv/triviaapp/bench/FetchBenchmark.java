@@ -0,0 +1,67 @@
+package trv.triviaapp.bench;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import trv.triviaapp.api.TriviaApi;
+import trv.triviaapp.model.Question;
+import trv.triviaapp.model.QuestionSet;
+import trv.triviaapp.tools.StubTriviaServer;
+
+/**
+ * The network fetch path against a local OpenTDB stub with no rate limit, so the numbers reflect
+ * the client (HTTP round-trip, streaming decode, request coalescing) rather than the internet.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FetchBenchmark {
+
+    @Param({"0", "5"})
+    public long latencyMillis;
+
+    private StubTriviaServer stub;
+    private TriviaApi api;
+
+    @Setup
+    public void start() throws IOException {
+        stub = new StubTriviaServer(0, StubTriviaServer.loadRecordings(Fixtures.path(Fixtures.MULTIPLE_50)));
+        stub.setLatency(latencyMillis, 0);
+        stub.start();
+        api = new TriviaApi(stub.getBaseUrl(), TriviaApi.sharedClient(),
+                Duration.ofSeconds(5), Duration.ZERO);
+    }
+
+    @TearDown
+    public void stop() {
+        stub.stop();
+    }
+
+    /** One game's worth of questions, usually served from questions left over by earlier requests. */
+    @Benchmark
+    public QuestionSet fetchGame() throws IOException {
+        return api.fetchQuestionSet();
+    }
+
+    /** A full batch, which always costs one HTTP request. */
+    @Benchmark
+    public List<Question> fetchFullBatch() {
+        return api.requestQuestions(50).join();
+    }
+}
@@ -0,0 +1,65 @@
+package trv.triviaapp.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Loads the OpenTDB response payloads bundled with the benchmarks.
+ */
+public final class Fixtures {
+    /** Ten questions of mixed type, the shape of a regular game. */
+    public static final String MIXED_10 = "opentdb-10-mixed.json";
+    /** Fifty multiple choice questions, the largest batch OpenTDB returns in one request. */
+    public static final String MULTIPLE_50 = "opentdb-50-multiple.json";
+
+    private Fixtures() {
+    }
+
+    /**
+     * Reads a fixture into memory.
+     *
+     * @param name The fixture file name
+     * @return The raw UTF-8 bytes of the payload
+     */
+    public static byte[] bytes(String name) {
+        try (InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Unknown fixture " + name);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Copies a fixture to a temporary file, for code that reads payloads from disk.
+     *
+     * @param name The fixture file name
+     * @return The path of the copy, deleted when the JVM exits
+     */
+    public static Path path(String name) {
+        try {
+            Path file = Files.createTempFile("fixture-", ".json");
+            file.toFile().deleteOnExit();
+            Files.write(file, bytes(name));
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads a fixture as a string.
+     *
+     * @param name The fixture file name
+     * @return The JSON payload
+     */
+    public static String json(String name) {
+        return new String(bytes(name), StandardCharsets.UTF_8);
+    }
+}
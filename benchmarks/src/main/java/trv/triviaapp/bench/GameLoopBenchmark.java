@@ -0,0 +1,68 @@
+package trv.triviaapp.bench;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import trv.triviaapp.api.QuestionSetReader;
+import trv.triviaapp.engine.GameSession;
+import trv.triviaapp.model.AnswerOptions;
+import trv.triviaapp.model.QuestionSet;
+
+/**
+ * A whole simulated game without the UI: decode a recorded response, then show every question
+ * and answer it with a random option, either directly on the question set or through a
+ * {@link GameSession} the way the controller drives a game.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GameLoopBenchmark {
+
+    private String json;
+
+    @Setup
+    public void load() {
+        json = Fixtures.json(Fixtures.MIXED_10);
+    }
+
+    @Benchmark
+    public int playGame() throws IOException {
+        QuestionSet set = QuestionSetReader.read(json);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int score = 0;
+        set.setQuestionIndex(0);
+        while (set.hasMoreQuestions()) {
+            AnswerOptions options = set.getCurrentOptions();
+            if (set.answer(random.nextInt(options.size()))) {
+                score++;
+            }
+            set.nextQuestion();
+        }
+        return score;
+    }
+
+    @Benchmark
+    public int playSession() throws IOException {
+        GameSession session = new GameSession(QuestionSetReader.read(json).getQuestions());
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        session.start();
+        while (!session.isFinished()) {
+            session.submitAnswer(random.nextInt(session.getCurrentOptions().size()));
+            session.advance();
+        }
+        return session.getScore();
+    }
+}
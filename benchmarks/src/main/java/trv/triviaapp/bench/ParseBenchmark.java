@@ -0,0 +1,60 @@
+package trv.triviaapp.bench;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import trv.triviaapp.api.QuestionSetReader;
+import trv.triviaapp.model.QuestionSet;
+
+/**
+ * Decoding of OpenTDB responses into question sets, from a String and from a byte stream,
+ * against a plain Gson tree parse with a fresh Gson instance as the old baseline.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParseBenchmark {
+
+    @Param({Fixtures.MIXED_10, Fixtures.MULTIPLE_50})
+    public String fixture;
+
+    private String json;
+    private byte[] bytes;
+
+    @Setup
+    public void load() {
+        json = Fixtures.json(fixture);
+        bytes = Fixtures.bytes(fixture);
+    }
+
+    @Benchmark
+    public QuestionSet readString() throws IOException {
+        return QuestionSetReader.read(json);
+    }
+
+    @Benchmark
+    public QuestionSet readStream() throws IOException {
+        return QuestionSetReader.read(new ByteArrayInputStream(bytes));
+    }
+
+    @Benchmark
+    public JsonObject freshGsonTree() {
+        return new Gson().fromJson(json, JsonObject.class);
+    }
+}
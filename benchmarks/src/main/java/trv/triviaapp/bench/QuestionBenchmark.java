@@ -0,0 +1,76 @@
+package trv.triviaapp.bench;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.StringEscapeUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import trv.triviaapp.api.QuestionSetReader;
+import trv.triviaapp.model.AnswerOptions;
+import trv.triviaapp.model.Question;
+
+/**
+ * Per-question operations: shuffling answers, checking answers and decoding HTML entities.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QuestionBenchmark {
+
+    private static final String RAW_QUESTION = "Which director made &quot;Pulp Fiction&quot; &amp; &#039;Jackie Brown&#039;?";
+
+    private Question question;
+    private AnswerOptions options;
+    private String userAnswer;
+
+    @Setup
+    public void load() throws IOException {
+        List<Question> questions = QuestionSetReader.read(Fixtures.json(Fixtures.MIXED_10)).getQuestions();
+        question = questions.stream().filter(Question::isMultipleChoice).findFirst().orElseThrow();
+        options = question.shuffledOptions();
+        userAnswer = question.getCorrectAnsw().toUpperCase();
+    }
+
+    @Benchmark
+    public List<String> shuffledAnswers() {
+        return question.shuffledAnswers();
+    }
+
+    @Benchmark
+    public AnswerOptions shuffledOptions() {
+        return question.shuffledOptions();
+    }
+
+    @Benchmark
+    public boolean checkAnswerText() {
+        return question.checkAnswer(userAnswer);
+    }
+
+    @Benchmark
+    public boolean checkAnswerIndex() {
+        return options.isCorrect(2);
+    }
+
+    @Benchmark
+    public String unescapeHtml() {
+        return StringEscapeUtils.unescapeHtml4(RAW_QUESTION);
+    }
+
+    @Benchmark
+    public Question ingest() {
+        return Question.fromHtml("multiple", "medium", "Entertainment: Film", RAW_QUESTION,
+                "Quentin Tarantino", new String[]{"Martin Scorsese", "Steven Spielberg", "Guy Ritchie"});
+    }
+}
@@ -1,40 +1,104 @@
 package trv.triviaapp;
 
-import java.net.MalformedURLException;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 import trv.triviaapp.controller.TriviaController;
+import trv.triviaapp.logging.Logging;
+import trv.triviaapp.metrics.LatencyHistogram;
+import trv.triviaapp.metrics.Metrics;
+import trv.triviaapp.server.TriviaServer;
+import trv.triviaapp.ui.AssetPreloader;
 
 /**
  * The main entry point for the TriviaApp. It initializes the application's user interface 
  * and the main controller, setting up the necessary environment for the trivia game.
  */
 public class TriviaApp {
+    /** Time from JVM start until the main window is shown. */
+    private static final LatencyHistogram STARTUP_TIMER = Metrics.timer("app.timeToMainWindow");
+    /** Time-to-main-window above which startup is logged as a warning, from {@code trivia.startup.target.ms}. */
+    private static final long STARTUP_TARGET_MILLIS = Long.getLong("trivia.startup.target.ms", 1000);
+    /** Interval at which metrics are logged, from {@code trivia.metrics.dump.seconds}; 0 to only expose them over JMX. */
+    private static final long METRICS_DUMP_SECONDS = Long.getLong("trivia.metrics.dump.seconds", 0);
     
     /**
      * The main method that serves as the entry point for the Trivia application.
-     * It configures the Look and Feel of the application and starts the main controller in a 
-     * separate thread to handle the logic of the trivia game.
+     * It installs logging and metrics, configures the Look and Feel of the application and starts
+     * the main controller on the Event Dispatch Thread, or starts the multi-player HTTP server
+     * instead when passed {@code --server [port]}.
+     * <p>
+     * The game is configured with {@code trivia.*} system properties, documented where they are read:
+     * <ul>
+     * <li>{@code trivia.log.level}, {@code trivia.log.buffer}, {@code trivia.log.payload.sample}</li>
+     * <li>{@code trivia.metrics.dump.seconds}, {@code trivia.startup.target.ms}, {@code trivia.startup.exit}</li>
+     * <li>{@code trivia.api.url}, {@code trivia.offline}, {@code trivia.round.seconds}, {@code trivia.player}</li>
+     * <li>{@code trivia.store}, {@code trivia.seen}, {@code trivia.scores}, {@code trivia.stats}</li>
+     * </ul>
      * 
-     * @param args Command line arguments, which are not used in this application.
+     * @param args Command line arguments: empty for the desktop game, or {@code --server [port]}.
      */
     public static void main(String[] args) {
+        Logging.install();
+        Metrics.registerMBean();
+        if (METRICS_DUMP_SECONDS > 0) {
+            Metrics.startDump(METRICS_DUMP_SECONDS, TimeUnit.SECONDS);
+        }
+
+        if (args.length > 0 && args[0].equals("--server")) {
+            runServer(args);
+            return;
+        }
+
         // Configure the Look and Feel of the application (optional)
         try {
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
         } catch (Exception e) {
-            e.printStackTrace();
+            Logger.getLogger(TriviaApp.class.getName()).log(Level.WARNING, "Could not set the look and feel", e);
         }
+        CompletableFuture<Void> assets = AssetPreloader.start();
         
         // Create and start the main controller in a separate thread
         SwingUtilities.invokeLater(() -> {
-            try {
-                TriviaController controller = new TriviaController();
-            } catch (MalformedURLException ex) {
-                Logger.getLogger(TriviaApp.class.getName()).log(Level.SEVERE, null, ex);
-            }
+            TriviaController controller = new TriviaController();
+            assets.thenRun(() -> SwingUtilities.invokeLater(controller::preloadForms));
+            // Runs after the events queued while the main window was being shown
+            SwingUtilities.invokeLater(TriviaApp::mainWindowShown);
         });
     }
+
+    /**
+     * Records the time from JVM start until the main window was shown as {@code app.timeToMainWindow},
+     * and exits when this is a training run: with {@code -Dtrivia.startup.exit=true}, which the
+     * {@code startup} build profile uses to train its class data sharing archive.
+     */
+    private static void mainWindowShown() {
+        long millis = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        STARTUP_TIMER.record(TimeUnit.MILLISECONDS.toNanos(millis));
+        Logger.getLogger(TriviaApp.class.getName()).log(millis > STARTUP_TARGET_MILLIS ? Level.WARNING : Level.INFO,
+                "Main window shown {0} ms after JVM start (target {1} ms)", new Object[] {millis, STARTUP_TARGET_MILLIS});
+        if (Boolean.getBoolean("trivia.startup.exit")) {
+            System.exit(0);
+        }
+    }
+
+    /**
+     * Starts the embedded multi-player server without any user interface.
+     * 
+     * @param args Command line arguments, where the optional second argument is the port.
+     */
+    private static void runServer(String[] args) {
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : TriviaServer.DEFAULT_PORT;
+        try {
+            TriviaServer.launch(port);
+        } catch (IOException ex) {
+            Logger.getLogger(TriviaApp.class.getName()).log(Level.SEVERE, "Could not start the server", ex);
+            System.exit(1);
+        }
+    }
 }
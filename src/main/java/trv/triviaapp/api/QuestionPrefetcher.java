@@ -0,0 +1,133 @@
+package trv.triviaapp.api;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import trv.triviaapp.model.QuestionSet;
+
+/**
+ * A question source that keeps a bounded buffer of ready question sets in front of another source.
+ * The buffer is refilled in the background, one fetch at a time, so starting a game is usually an
+ * in-memory dequeue instead of a network round-trip. Hits and misses are counted for monitoring.
+ */
+public class QuestionPrefetcher implements QuestionSource {
+    private static final Logger LOG = Logger.getLogger(QuestionPrefetcher.class.getName());
+
+    private final QuestionSource source;
+    private final Executor executor;
+    private final BlockingQueue<QuestionSet> buffer;
+    private final AtomicBoolean refilling = new AtomicBoolean();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Creates a prefetcher in front of the given source.
+     * 
+     * @param source The source used to fill the buffer and to serve misses
+     * @param capacity The maximum number of question sets kept ready
+     * @param executor The executor that runs background refills
+     */
+    public QuestionPrefetcher(QuestionSource source, int capacity, Executor executor) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.source = source;
+        this.executor = executor;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Starts filling the buffer in the background.
+     */
+    public void start() {
+        refill();
+    }
+
+    /**
+     * Returns a buffered question set if one is ready, otherwise fetches one from the underlying
+     * source on the calling thread. Either way a background refill is scheduled afterwards.
+     * 
+     * @return A question set, or null if the underlying source could not provide one
+     * @throws IOException if the buffer was empty and fetching from the source failed
+     */
+    @Override
+    public QuestionSet fetch() throws IOException {
+        QuestionSet set = buffer.poll();
+        try {
+            if (set != null) {
+                hits.incrementAndGet();
+                return set;
+            }
+            misses.incrementAndGet();
+            return source.fetch();
+        } finally {
+            refill();
+        }
+    }
+
+    /**
+     * Schedules a background task that fetches until the buffer is full, unless one is already running.
+     */
+    private void refill() {
+        if (buffer.remainingCapacity() == 0 || !refilling.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                while (buffer.remainingCapacity() > 0) {
+                    QuestionSet set = source.fetch();
+                    if (!isPlayable(set) || !buffer.offer(set)) {
+                        break;
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                LOG.log(Level.WARNING, "Prefetching questions failed", e);
+            } finally {
+                refilling.set(false);
+            }
+        });
+    }
+
+    /**
+     * Checks whether a fetched set is worth buffering.
+     * 
+     * @param set The fetched question set
+     * @return true if the set was returned successfully and contains questions
+     */
+    private static boolean isPlayable(QuestionSet set) {
+        return set != null && set.getResponseCode() == 0
+                && set.getQuestions() != null && !set.getQuestions().isEmpty();
+    }
+
+    /**
+     * Returns the number of question sets currently ready in the buffer.
+     * 
+     * @return The buffered question set count
+     */
+    public int getBuffered() {
+        return buffer.size();
+    }
+
+    /**
+     * Returns how many fetches were served from the buffer.
+     * 
+     * @return The hit count
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns how many fetches found the buffer empty and went to the underlying source.
+     * 
+     * @return The miss count
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+}
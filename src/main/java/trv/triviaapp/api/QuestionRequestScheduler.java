@@ -0,0 +1,360 @@
+package trv.triviaapp.api;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import trv.triviaapp.model.Question;
+import trv.triviaapp.model.QuestionSet;
+
+/**
+ * Turns concurrent demands for questions into as few Trivia API requests as possible.
+ * <p>
+ * A single dispatcher thread waits for the {@link TokenBucket} before each request. Demands that
+ * arrive in the meantime are merged into one request for the largest amount the API allows, and the
+ * results are split between the waiting callers. Questions left over are kept for later demands, so
+ * they are served without another request or waiting for the rate limit. Requests carry an OpenTDB
+ * session token, which makes the API avoid returning the same question twice; the token is renewed or
+ * reset when the API asks for it, or when it has fewer unseen questions left than one request asks for. When the API keeps refusing requests because of its rate limit, the
+ * waiting demands fail with a {@link RateLimitedException} after {@link #MAX_RATE_LIMIT_RETRIES} retries.
+ */
+final class QuestionRequestScheduler {
+    private static final Logger LOG = Logger.getLogger(QuestionRequestScheduler.class.getName());
+
+    /** Largest "amount" the Trivia API accepts in one request. */
+    static final int MAX_AMOUNT = 50;
+    /** Maximum number of left-over questions kept for later demands. */
+    private static final int MAX_SURPLUS = 4 * MAX_AMOUNT;
+    /** Number of times a request refused by the rate limit is sent again before its demands fail. */
+    static final int MAX_RATE_LIMIT_RETRIES = 3;
+
+    // OpenTDB response codes
+    private static final int SUCCESS = 0;
+    private static final int NO_RESULTS = 1;
+    private static final int TOKEN_NOT_FOUND = 3;
+    private static final int TOKEN_EMPTY = 4;
+    private static final int RATE_LIMIT = TriviaApi.RATE_LIMITED;
+
+    private final TriviaApi api;
+    private final TokenBucket bucket;
+    private final Deque<Demand> demands = new ArrayDeque<>();
+    private final Deque<Question> surplus = new ArrayDeque<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong served = new AtomicLong();
+    private Thread dispatcher;
+    private String token;
+    /** Consecutive answers refused by the rate limit; only used by the dispatcher. */
+    private int rateLimited;
+    /** Whether the token was reset because the last answer had no results; only used by the dispatcher. */
+    private boolean resetForNoResults;
+
+    /**
+     * A caller waiting for a number of questions.
+     */
+    private record Demand(int amount, CompletableFuture<List<Question>> result) {
+    }
+
+    /**
+     * Signals that the API refused a request because of its rate limit, i.e. response code
+     * {@value TriviaApi#RATE_LIMITED}, more often than the scheduler retries.
+     */
+    static final class RateLimitedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        RateLimitedException() {
+            super("Trivia API answered response code " + RATE_LIMIT + " after "
+                    + MAX_RATE_LIMIT_RETRIES + " retries");
+        }
+    }
+
+    /**
+     * Creates a scheduler that sends its requests through the given API.
+     *
+     * @param api The API used to send requests
+     * @param bucket The rate limiter that every request must pass
+     */
+    QuestionRequestScheduler(TriviaApi api, TokenBucket bucket) {
+        this.api = api;
+        this.bucket = bucket;
+    }
+
+    /**
+     * Asks for questions. The demand is served from left-over questions if possible, otherwise
+     * it joins the next request.
+     *
+     * @param amount The number of questions wanted, from 1 to {@link #MAX_AMOUNT}
+     * @return A future completed with the questions; it may hold fewer if the API ran out
+     */
+    CompletableFuture<List<Question>> submit(int amount) {
+        if (amount < 1 || amount > MAX_AMOUNT) {
+            throw new IllegalArgumentException("amount must be between 1 and " + MAX_AMOUNT);
+        }
+        CompletableFuture<List<Question>> result = new CompletableFuture<>();
+        synchronized (this) {
+            if (demands.isEmpty() && surplus.size() >= amount) {
+                result.complete(take(amount));
+                return result;
+            }
+            demands.addLast(new Demand(amount, result));
+            if (dispatcher == null) {
+                dispatcher = Thread.ofVirtual().name("trivia-api-dispatcher").start(this::dispatch);
+            }
+            notifyAll();
+        }
+        return result;
+    }
+
+    /**
+     * Dispatcher loop: waits for demands, serves them from left-over questions if it can, and otherwise
+     * waits for the rate limit and sends one request per batch. The session token is obtained before
+     * waiting, as requesting it is a call to the API as well.
+     */
+    private void dispatch() {
+        while (true) {
+            try {
+                awaitDemand();
+                if (serveFromSurplus()) {
+                    continue;
+                }
+                String session = currentToken();
+                bucket.acquire();
+                List<Demand> batch = drainBatch();
+                if (!batch.isEmpty()) {
+                    send(batch, session);
+                }
+            } catch (InterruptedException | InterruptedIOException e) {
+                failAll(e);
+                return;
+            }
+        }
+    }
+
+    private synchronized void awaitDemand() throws InterruptedException {
+        while (demands.isEmpty()) {
+            wait();
+        }
+    }
+
+    /**
+     * Serves the demands at the head of the queue from left-over questions.
+     *
+     * @return true if no demand is left waiting for a request
+     */
+    private synchronized boolean serveFromSurplus() {
+        while (!demands.isEmpty()) {
+            Demand next = demands.peekFirst();
+            if (next.result().isDone()) {
+                demands.pollFirst();
+            } else if (surplus.size() >= next.amount()) {
+                demands.pollFirst().result().complete(take(next.amount()));
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Serves what it can from left-over questions and takes the demands that fit in one request.
+     * Demands whose caller stopped waiting are dropped.
+     *
+     * @return The demands to send in the next request
+     */
+    private synchronized List<Demand> drainBatch() {
+        List<Demand> batch = new ArrayList<>();
+        int total = 0;
+        while (!demands.isEmpty()) {
+            Demand next = demands.peekFirst();
+            if (next.result().isDone()) {
+                demands.pollFirst();
+            } else if (surplus.size() >= next.amount()) {
+                demands.pollFirst().result().complete(take(next.amount()));
+            } else if (total + next.amount() <= MAX_AMOUNT) {
+                batch.add(demands.pollFirst());
+                total += next.amount();
+            } else {
+                break;
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Sends one request for the largest allowed amount and distributes the result.
+     *
+     * @param batch The demands waiting for this request
+     * @param session The session token, or null to send the request without one
+     */
+    private void send(List<Demand> batch, String session) {
+        QuestionSet set;
+        try {
+            set = api.fetchBatch(MAX_AMOUNT, session);
+            requests.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            batch.forEach(demand -> demand.result().completeExceptionally(e));
+            return;
+        }
+
+        if (set.getResponseCode() != RATE_LIMIT) {
+            rateLimited = 0;
+        }
+        if (set.getResponseCode() != NO_RESULTS) {
+            resetForNoResults = false;
+        }
+        switch (set.getResponseCode()) {
+            case SUCCESS -> distribute(batch, set.getQuestions());
+            case NO_RESULTS -> {
+                // Every request asks for MAX_AMOUNT, so a token with fewer unseen questions left answers
+                // this forever; reset it once, and only give up if the API has no more questions at all
+                if (session != null && !resetForNoResults) {
+                    resetForNoResults = true;
+                    resetToken();
+                    requeue(batch);
+                } else {
+                    resetForNoResults = false;
+                    distribute(batch, set.getQuestions());
+                }
+            }
+            case TOKEN_NOT_FOUND -> {
+                synchronized (this) {
+                    token = null;
+                }
+                requeue(batch);
+            }
+            case TOKEN_EMPTY -> {
+                resetToken();
+                requeue(batch);
+            }
+            case RATE_LIMIT -> {
+                bucket.drain();
+                if (++rateLimited > MAX_RATE_LIMIT_RETRIES) {
+                    LOG.info("Trivia API keeps refusing requests because of its rate limit, giving up");
+                    rateLimited = 0;
+                    IOException error = new RateLimitedException();
+                    batch.forEach(demand -> demand.result().completeExceptionally(error));
+                } else {
+                    LOG.fine("Trivia API rate limit hit, backing off");
+                    requeue(batch);
+                }
+            }
+            default -> {
+                IOException error = new IOException("Trivia API answered response code " + set.getResponseCode());
+                batch.forEach(demand -> demand.result().completeExceptionally(error));
+            }
+        }
+    }
+
+    /**
+     * Hands out fetched questions to the waiting demands in order and keeps the rest.
+     */
+    private void distribute(List<Demand> batch, List<Question> fetched) {
+        List<List<Question>> shares = new ArrayList<>(batch.size());
+        synchronized (this) {
+            for (Question question : fetched) {
+                surplus.addLast(question);
+            }
+            for (Demand demand : batch) {
+                shares.add(take(Math.min(demand.amount(), surplus.size())));
+            }
+            while (surplus.size() > MAX_SURPLUS) {
+                surplus.pollFirst();
+            }
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result().complete(shares.get(i));
+        }
+    }
+
+    /**
+     * Removes questions from the left-over queue. Must be called while holding the lock.
+     */
+    private List<Question> take(int amount) {
+        List<Question> taken = new ArrayList<>(amount);
+        for (int i = 0; i < amount; i++) {
+            taken.add(surplus.pollFirst());
+        }
+        served.addAndGet(amount);
+        return taken;
+    }
+
+    private synchronized void requeue(List<Demand> batch) {
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            demands.addFirst(batch.get(i));
+        }
+    }
+
+    private synchronized void failAll(Exception cause) {
+        demands.forEach(demand -> demand.result().completeExceptionally(cause));
+        demands.clear();
+        dispatcher = null;
+    }
+
+    /**
+     * Returns the session token, requesting one first if needed. Requests go on without a token
+     * if none can be obtained.
+     *
+     * @throws InterruptedIOException if interrupted while waiting for the rate limit
+     */
+    private String currentToken() throws InterruptedIOException {
+        synchronized (this) {
+            if (token != null) {
+                return token;
+            }
+        }
+        try {
+            String fresh = api.requestToken();
+            synchronized (this) {
+                token = fresh;
+            }
+            return fresh;
+        } catch (InterruptedIOException e) {
+            throw e;
+        } catch (IOException e) {
+            LOG.log(Level.FINE, "Could not obtain a session token", e);
+            return null;
+        }
+    }
+
+    /**
+     * Resets the session token after the API ran out of unseen questions for it.
+     */
+    private void resetToken() {
+        String current;
+        synchronized (this) {
+            current = token;
+        }
+        try {
+            if (current != null) {
+                api.resetToken(current);
+            }
+        } catch (IOException e) {
+            synchronized (this) {
+                token = null;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of requests sent to the API.
+     *
+     * @return The request count
+     */
+    long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * Returns the number of questions handed out to callers.
+     *
+     * @return The served question count
+     */
+    long getServed() {
+        return served.get();
+    }
+}
@@ -0,0 +1,177 @@
+package trv.triviaapp.api;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import trv.triviaapp.events.ParseEvent;
+import trv.triviaapp.metrics.LatencyHistogram;
+import trv.triviaapp.metrics.Metrics;
+import trv.triviaapp.model.Question;
+import trv.triviaapp.model.QuestionSet;
+
+/**
+ * Decodes Trivia API responses into question sets.
+ * The JSON is read incrementally with a {@link JsonReader}, one question at a time, so a response
+ * can be decoded straight off the network stream without first being copied into a String.
+ * A single configured {@link Gson} instance is shared by all readers. This is the ingest stage for
+ * questions: HTML entities are decoded here, once, into immutable {@link Question}s.
+ */
+public final class QuestionSetReader {
+    private static final Gson GSON = new Gson();
+    /** Time to decode a response; when decoding off the network this includes reading the body. */
+    private static final LatencyHistogram PARSE_TIMER = Metrics.timer("api.parse");
+
+    private QuestionSetReader() {
+    }
+
+    /**
+     * Returns the shared Gson instance used to decode questions.
+     *
+     * @return The shared Gson instance
+     */
+    public static Gson gson() {
+        return GSON;
+    }
+
+    /**
+     * Decodes a question set from a UTF-8 encoded stream. The stream is not closed.
+     *
+     * @param in The stream containing the JSON response
+     * @return The decoded question set
+     * @throws IOException if the stream cannot be read or does not contain a valid response
+     */
+    public static QuestionSet read(InputStream in) throws IOException {
+        return read(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a question set from a JSON string.
+     *
+     * @param json The JSON response
+     * @return The decoded question set
+     * @throws IOException if the string does not contain a valid response
+     */
+    public static QuestionSet read(String json) throws IOException {
+        return read(new StringReader(json));
+    }
+
+    /**
+     * Decodes a question set from a character stream. The reader is not closed.
+     *
+     * @param in The reader containing the JSON response
+     * @return The decoded question set
+     * @throws IOException if the reader cannot be read or does not contain a valid response
+     */
+    public static QuestionSet read(Reader in) throws IOException {
+        long start = System.nanoTime();
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        JsonReader reader = new JsonReader(in);
+        int responseCode = 0;
+        List<Question> results = new ArrayList<>();
+
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "response_code" -> responseCode = reader.nextInt();
+                    case "results" -> readQuestions(reader, results);
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (IllegalStateException | NumberFormatException | JsonParseException e) {
+            throw new IOException("Malformed Trivia API response: " + e.getMessage(), e);
+        }
+
+        PARSE_TIMER.recordSince(start);
+        if (event.shouldCommit()) {
+            event.questionCount = results.size();
+            event.responseCode = responseCode;
+            event.commit();
+        }
+        return new QuestionSet(responseCode, results);
+    }
+
+    /**
+     * Decodes a single question object, as found in the "results" array of a response.
+     *
+     * @param json The JSON object of one question
+     * @return The decoded question
+     * @throws IOException if the string is not a valid question object
+     */
+    public static Question readQuestion(String json) throws IOException {
+        try {
+            RawQuestion raw = GSON.fromJson(json, RawQuestion.class);
+            if (raw == null) {
+                throw new IOException("Empty question record");
+            }
+            return raw.decode();
+        } catch (IllegalStateException | JsonParseException e) {
+            throw new IOException("Malformed question: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads the "results" array one question at a time.
+     *
+     * @param reader The reader positioned at the array
+     * @param results The list that receives the decoded questions
+     * @throws IOException if the array cannot be read
+     */
+    private static void readQuestions(JsonReader reader, List<Question> results) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return;
+        }
+        reader.beginArray();
+        while (reader.hasNext()) {
+            RawQuestion raw = GSON.fromJson(reader, RawQuestion.class);
+            if (raw == null) {
+                throw new JsonParseException("Null question in results");
+            }
+            results.add(raw.decode());
+        }
+        reader.endArray();
+    }
+
+    /**
+     * A question exactly as the Trivia API sends it, before decoding.
+     */
+    private static final class RawQuestion {
+        private String type;
+        private String difficulty;
+        private String category;
+        private String question;
+        private String correct_answer;
+        private String[] incorrect_answers;
+
+        /**
+         * Validates the raw fields and decodes them into a question.
+         *
+         * @return The decoded question
+         * @throws JsonParseException if a required field is missing or an incorrect answer is null
+         */
+        Question decode() {
+            if (type == null || question == null || correct_answer == null) {
+                throw new JsonParseException("Question is missing its type, text or correct answer");
+            }
+            String[] incorrect = incorrect_answers != null ? incorrect_answers : new String[0];
+            for (String answer : incorrect) {
+                if (answer == null) {
+                    throw new JsonParseException("Question has a null incorrect answer");
+                }
+            }
+            return Question.fromHtml(type, difficulty, category, question, correct_answer, incorrect);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package trv.triviaapp.api;
+
+import java.io.IOException;
+import trv.triviaapp.model.QuestionSet;
+
+/**
+ * A source of trivia question sets, such as the remote Trivia API or a buffer in front of it.
+ */
+@FunctionalInterface
+public interface QuestionSource {
+
+    /**
+     * Fetches a new set of questions.
+     * 
+     * @return A question set, or null if the source could not provide one
+     * @throws IOException if an I/O error occurs while fetching the questions
+     */
+    QuestionSet fetch() throws IOException;
+}
@@ -0,0 +1,80 @@
+package trv.triviaapp.api;
+
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A token bucket that spaces out requests to a rate-limited service.
+ * One token is added every refill interval, up to the bucket's capacity; each request takes one.
+ * This class is thread-safe.
+ */
+public class TokenBucket {
+    private final int capacity;
+    private final long intervalNanos;
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * Creates a full bucket.
+     *
+     * @param capacity The maximum number of requests that may be sent back to back
+     * @param interval The time it takes to earn one token
+     */
+    public TokenBucket(int capacity, Duration interval) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        this.intervalNanos = Math.max(1, interval.toNanos());
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @return 0 if a token was taken, otherwise the nanoseconds until the next token is available
+     */
+    public synchronized long tryAcquire() {
+        refill();
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) * intervalNanos);
+    }
+
+    /**
+     * Takes a token, waiting for one to become available if necessary.
+     *
+     * @throws InterruptedIOException if the calling thread is interrupted while waiting
+     */
+    public void acquire() throws InterruptedIOException {
+        long wait;
+        while ((wait = tryAcquire()) > 0) {
+            LockSupport.parkNanos(this, wait);
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the rate limit");
+            }
+        }
+    }
+
+    /**
+     * Empties the bucket, e.g. after the service reported that the rate limit was exceeded.
+     */
+    public synchronized void drain() {
+        refill();
+        tokens = 0;
+    }
+
+    /**
+     * Adds the tokens earned since the last refill.
+     */
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (double) (now - lastRefill) / intervalNanos);
+        lastRefill = now;
+    }
+}
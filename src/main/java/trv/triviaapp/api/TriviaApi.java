@@ -1,78 +1,456 @@
 package trv.triviaapp.api;
 
-import java.io.BufferedReader;
+import com.google.gson.JsonObject;
+import java.io.FilterInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.MalformedURLException;
-import java.net.URL;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import trv.triviaapp.events.FetchEvent;
+import trv.triviaapp.logging.Logging;
+import trv.triviaapp.metrics.LatencyHistogram;
+import trv.triviaapp.metrics.Metrics;
+import trv.triviaapp.model.Question;
+import trv.triviaapp.model.QuestionSet;
 
 /**
  * This class provides methods to connect to the Trivia API, retrieve questions, and manage the connection.
- * It handles the interaction with the trivia API, including making requests, reading responses, 
+ * It handles the interaction with the trivia API, including making requests, reading responses,
  * and managing the connection life-cycle.
+ * <p>
+ * All instances created with the default constructor share one long-lived {@link HttpClient}, so
+ * consecutive requests reuse pooled keep-alive connections, TLS sessions and HTTP/2 where available.
+ * Question requests made through {@link #fetchQuestionSet()} and {@link #requestQuestions(int)} are
+ * coalesced into as few requests as possible, and they and the session token requests respect
+ * OpenTDB's rate limit.
  */
-public class TriviaApi {
-    private URL url;
-    private HttpURLConnection conn;
-    
+public final class TriviaApi {
+    /** Base URL of the public Trivia API, used unless the {@code trivia.api.url} system property is set. */
+    public static final String DEFAULT_BASE_URL = "https://opentdb.com";
+    /** OpenTDB response code for a request refused by the rate limit. */
+    public static final int RATE_LIMITED = 5;
+    /** Number of questions in a game. */
+    public static final int DEFAULT_AMOUNT = 10;
+    /** Default time allowed to establish a connection. */
+    public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    /** Default time allowed for a whole request, from sending it to receiving the response headers. */
+    public static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(5);
+    /** Default minimum time between two question requests; OpenTDB allows one every 5 seconds per IP. */
+    public static final Duration DEFAULT_REQUEST_INTERVAL = Duration.ofSeconds(5);
+
+    private static final Logger LOG = Logger.getLogger(TriviaApi.class.getName());
+    /** Time from sending a request until the response headers arrive (or the whole body, for String responses). */
+    private static final LatencyHistogram CONNECT_TIMER = Metrics.timer("api.connect");
+    /** Time to read a response body opened by {@link #connect()}. */
+    private static final LatencyHistogram READ_TIMER = Metrics.timer("api.read");
+
+    private static final HttpClient SHARED_CLIENT =
+            newClient(DEFAULT_CONNECT_TIMEOUT, Executors.newVirtualThreadPerTaskExecutor());
+
+    private final HttpClient client;
+    private final String apiUrl;
+    private final String tokenUrl;
+    private final Duration requestTimeout;
+    /** Longest time {@link #fetchQuestionSet()} waits for the scheduler. */
+    private final Duration fetchTimeout;
+    private final TokenBucket bucket;
+    private final HttpRequest request;
+    private final QuestionRequestScheduler scheduler;
+    private HttpResponse<InputStream> response;
+
     /**
      * Constructor that initializes the TriviaApi with the URL of the Trivia API.
-     * This constructor sets the API endpoint to retrieve 10 trivia questions.
-     * 
-     * @throws MalformedURLException if the URL is invalid
+     * This constructor sets the API endpoint to retrieve 10 trivia questions and uses the shared client.
+     * The base URL can be pointed elsewhere, e.g. at a local stub, with the {@code trivia.api.url}
+     * system property.
+     */
+    public TriviaApi() {
+        this(baseUrl(), SHARED_CLIENT, DEFAULT_REQUEST_TIMEOUT, DEFAULT_REQUEST_INTERVAL);
+    }
+
+    /**
+     * Constructor that initializes the TriviaApi with a specific client, request timeout and rate limit.
+     * Like the default constructor, it takes the base URL from {@link #baseUrl()}.
+     *
+     * @param client The HTTP client used to send requests, ideally shared and long-lived
+     * @param requestTimeout The time allowed for each request
+     * @param requestInterval The minimum time between two question requests
      */
-    public TriviaApi() throws MalformedURLException {
-        this.url = new URL("https://opentdb.com/api.php?amount=10");
+    public TriviaApi(HttpClient client, Duration requestTimeout, Duration requestInterval) {
+        this(baseUrl(), client, requestTimeout, requestInterval);
     }
-    
+
+    /**
+     * Constructor that initializes the TriviaApi against any server that speaks the OpenTDB protocol.
+     *
+     * @param baseUrl The base URL of the server, e.g. "https://opentdb.com" or "http://localhost:8089"
+     * @param client The HTTP client used to send requests, ideally shared and long-lived
+     * @param requestTimeout The time allowed for each request
+     * @param requestInterval The minimum time between two question requests
+     */
+    public TriviaApi(String baseUrl, HttpClient client, Duration requestTimeout, Duration requestInterval) {
+        String base = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.client = client;
+        this.apiUrl = base + "/api.php";
+        this.tokenUrl = base + "/api_token.php";
+        this.requestTimeout = requestTimeout;
+        // Room for the token request and every retry after the rate limit, each waiting for the limit
+        this.fetchTimeout = requestTimeout.plus(requestInterval)
+                .multipliedBy(QuestionRequestScheduler.MAX_RATE_LIMIT_RETRIES + 2);
+        this.bucket = new TokenBucket(1, requestInterval);
+        this.request = newRequest(apiUrl + "?amount=" + DEFAULT_AMOUNT);
+        this.scheduler = new QuestionRequestScheduler(this, bucket);
+    }
+
+    /**
+     * Returns the base URL given by the {@code trivia.api.url} system property, or
+     * {@link #DEFAULT_BASE_URL} by default.
+     *
+     * @return The base URL
+     */
+    public static String baseUrl() {
+        return System.getProperty("trivia.api.url", DEFAULT_BASE_URL);
+    }
+
+    /**
+     * Returns the shared HTTP client used by instances created with the default constructor.
+     *
+     * @return The shared client
+     */
+    public static HttpClient sharedClient() {
+        return SHARED_CLIENT;
+    }
+
+    /**
+     * Creates an HTTP client suitable for talking to the Trivia API.
+     *
+     * @param connectTimeout The time allowed to establish a connection
+     * @param executor The executor used for asynchronous work, e.g. a virtual-thread-per-task executor
+     * @return A new HTTP client that follows redirects and prefers HTTP/2
+     */
+    public static HttpClient newClient(Duration connectTimeout, Executor executor) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(connectTimeout)
+                .executor(executor)
+                .build();
+    }
+
+    /**
+     * Builds a GET request with the configured timeout.
+     *
+     * @param url The URL to request
+     * @return The request
+     */
+    private HttpRequest newRequest(String url) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(requestTimeout)
+                .GET()
+                .build();
+    }
+
     /**
      * Establishes a connection to the Trivia API and returns the HTTP response code.
      * This method sends a GET request to the API to fetch trivia questions.
-     * 
+     *
      * @return The HTTP response code from the server
      * @throws IOException if an I/O error occurs when making the connection
      */
     public int connect() throws IOException {
-        conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("GET");
-        conn.setConnectTimeout(5000);
-        conn.setReadTimeout(5000);        
-        conn.connect();
-        
-        int response = conn.getResponseCode();
-        
-        return response;
-    }
-    
+        disconnect();
+        response = send(HttpResponse.BodyHandlers.ofInputStream());
+
+        return response.statusCode();
+    }
+
     /**
      * Reads the JSON response from the API and returns it as a string.
-     * This method reads the input stream from the connection and appends the data into a StringBuilder.
-     * 
+     * This method reads the body of the response opened by {@link #connect()}.
+     *
      * @return The JSON response from the API as a String
      * @throws IOException if an error occurs while reading the response
      */
     public String getJSON() throws IOException {
-        StringBuilder info = new StringBuilder();
-        
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(conn.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                info.append(line);
+        if (response == null) {
+            throw new IllegalStateException("connect() must be called first");
+        }
+        long start = System.nanoTime();
+        try (InputStream in = response.body()) {
+            String json = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            Logging.logPayload(LOG, apiUrl, json);
+            return json;
+        } finally {
+            READ_TIMER.recordSince(start);
+        }
+    }
+
+    /**
+     * Sends a request to the Trivia API and returns the whole response, without keeping any state.
+     * Unlike {@link #connect()} and {@link #getJSON()}, this method is safe to call concurrently.
+     *
+     * @return The response, with the JSON body as a String
+     * @throws IOException if an I/O error occurs when sending or receiving
+     */
+    public HttpResponse<String> fetch() throws IOException {
+        FetchEvent event = new FetchEvent();
+        event.begin();
+        HttpResponse<String> fetched = send(HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        if (event.shouldCommit()) {
+            event.url = request.uri().toString();
+            event.status = fetched.statusCode();
+            event.bytes = fetched.body().getBytes(StandardCharsets.UTF_8).length;
+            event.commit();
+        }
+        Logging.logPayload(LOG, apiUrl, fetched.body());
+        return fetched;
+    }
+
+    /**
+     * Gets the questions for one game. The request goes through the rate-limited scheduler, so
+     * concurrent callers share requests and left-over questions from earlier requests are used first.
+     * This method is safe to call concurrently.
+     *
+     * @return A question set of up to {@link #DEFAULT_AMOUNT} questions; its response code is 1
+     *         if the API had no questions left, or {@value #RATE_LIMITED} if it kept refusing
+     *         requests because of its rate limit
+     * @throws IOException if an I/O error occurs, the server does not answer with HTTP 200,
+     *         the response is not valid JSON, or no questions arrive in time
+     */
+    public QuestionSet fetchQuestionSet() throws IOException {
+        CompletableFuture<List<Question>> pending = requestQuestions(DEFAULT_AMOUNT);
+        List<Question> questions;
+        try {
+            questions = pending.get(fetchTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            pending.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for questions");
+        } catch (TimeoutException e) {
+            pending.cancel(false);
+            throw new IOException("No questions from the Trivia API within " + fetchTimeout.toSeconds() + " s");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof QuestionRequestScheduler.RateLimitedException) {
+                return new QuestionSet(RATE_LIMITED, List.of());
+            }
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException(e.getCause());
+        }
+        return new QuestionSet(questions.isEmpty() ? 1 : 0, questions);
+    }
+
+    /**
+     * Asks for questions without blocking. Demands from concurrent callers are coalesced into
+     * single requests for the largest amount OpenTDB allows, sent no faster than the rate limit.
+     *
+     * @param amount The number of questions wanted, from 1 to 50
+     * @return A future completed with the questions; it may hold fewer if the API ran out, and it
+     *         completes exceptionally if the API keeps refusing requests because of its rate limit
+     */
+    public CompletableFuture<List<Question>> requestQuestions(int amount) {
+        return scheduler.submit(amount);
+    }
+
+    /**
+     * Returns how many question requests have been sent to the API through the scheduler.
+     *
+     * @return The request count
+     */
+    public long getRequestCount() {
+        return scheduler.getRequests();
+    }
+
+    /**
+     * Returns how many questions have been handed out through the scheduler.
+     *
+     * @return The served question count
+     */
+    public long getServedCount() {
+        return scheduler.getServed();
+    }
+
+    /**
+     * Sends one request for questions and decodes the response directly from the stream.
+     *
+     * @param amount The number of questions to ask for
+     * @param token The session token, or null to send the request without one
+     * @return The decoded question set
+     * @throws IOException if an I/O error occurs, the server does not answer with HTTP 200,
+     *         or the response is not valid JSON
+     */
+    QuestionSet fetchBatch(int amount, String token) throws IOException {
+        String url = apiUrl + "?amount=" + amount + (token != null ? "&token=" + token : "");
+        FetchEvent event = new FetchEvent();
+        event.begin();
+        HttpResponse<InputStream> streamed = send(newRequest(url), HttpResponse.BodyHandlers.ofInputStream());
+        CountingInputStream counted = event.isEnabled() ? new CountingInputStream(streamed.body()) : null;
+        try (InputStream in = counted != null ? counted : streamed.body()) {
+            if (streamed.statusCode() == 429) {
+                // OpenTDB signals its rate limit both with HTTP 429 and response code 5
+                return new QuestionSet(RATE_LIMITED, List.of());
+            }
+            if (streamed.statusCode() != 200) {
+                LOG.log(Level.FINE, "Trivia API answered HTTP {0}", streamed.statusCode());
+                throw new IOException("Trivia API answered HTTP " + streamed.statusCode());
+            }
+            QuestionSet set = QuestionSetReader.read(in);
+            Metrics.counter("api.response_code." + set.getResponseCode()).increment();
+            LOG.log(Level.FINE, "Fetched {0} questions (response code {1})",
+                    new Object[] {set.getSize(), set.getResponseCode()});
+            return set;
+        } finally {
+            if (event.shouldCommit()) {
+                event.url = url;
+                event.status = streamed.statusCode();
+                event.bytes = counted != null ? counted.count : -1;
+                event.commit();
             }
         }
-        
-        return info.toString();
     }
-    
+
+    /**
+     * Requests a new session token.
+     *
+     * @return The token
+     * @throws IOException if the request fails or the API does not issue a token
+     */
+    String requestToken() throws IOException {
+        return tokenCommand("?command=request");
+    }
+
+    /**
+     * Resets a session token so that it may return every question again.
+     *
+     * @param token The token to reset
+     * @throws IOException if the request fails or the API rejects the token
+     */
+    void resetToken(String token) throws IOException {
+        tokenCommand("?command=reset&token=" + token);
+    }
+
+    /**
+     * Sends a command to the token endpoint once the rate limit allows it.
+     *
+     * @param query The query string, including the leading '?'
+     * @return The token returned by the API
+     * @throws IOException if the request fails or the API answers with an error
+     */
+    private String tokenCommand(String query) throws IOException {
+        bucket.acquire();
+        HttpResponse<String> answer = send(newRequest(tokenUrl + query),
+                HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        if (answer.statusCode() != 200) {
+            throw new IOException("Trivia API answered HTTP " + answer.statusCode());
+        }
+        try {
+            JsonObject json = QuestionSetReader.gson().fromJson(answer.body(), JsonObject.class);
+            if (json == null || json.get("response_code").getAsInt() != 0 || !json.has("token")) {
+                throw new IOException("Trivia API refused the token command: " + answer.body());
+            }
+            return json.get("token").getAsString();
+        } catch (RuntimeException e) {
+            throw new IOException("Malformed token response: " + answer.body(), e);
+        }
+    }
+
     /**
-     * Closes the connection to the Trivia API if it is open.
-     * This method ensures that the connection is properly closed when no longer needed.
+     * Sends a request to the Trivia API without blocking the calling thread.
+     *
+     * @return A future completed with the response, with the JSON body as a String
+     */
+    public CompletableFuture<HttpResponse<String>> fetchAsync() {
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sends the request synchronously, translating interruption into an I/O error.
+     *
+     * @param handler The handler for the response body
+     * @return The response
+     * @throws IOException if an I/O error occurs or the calling thread is interrupted
+     */
+    private <T> HttpResponse<T> send(HttpResponse.BodyHandler<T> handler) throws IOException {
+        return send(request, handler);
+    }
+
+    /**
+     * Sends a request synchronously, translating interruption into an I/O error.
+     *
+     * @param request The request to send
+     * @param handler The handler for the response body
+     * @return The response
+     * @throws IOException if an I/O error occurs or the calling thread is interrupted
+     */
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<T> sent = client.send(request, handler);
+            CONNECT_TIMER.recordSince(start);
+            Metrics.counter("api.http." + sent.statusCode()).increment();
+            return sent;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Request to the Trivia API was interrupted");
+        }
+    }
+
+    /**
+     * Releases the response opened by {@link #connect()} if it has not been fully read.
+     * The underlying connection stays in the shared pool for reuse.
      */
     public void disconnect() {
-        if (conn != null) {
-            conn.disconnect();
+        if (response != null) {
+            try {
+                response.body().close();
+            } catch (IOException e) {
+                // Nothing left to release
+            }
+            response = null;
+        }
+    }
+
+    /**
+     * Counts the bytes read through it, for {@link FetchEvent#bytes}.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
         }
     }
 }
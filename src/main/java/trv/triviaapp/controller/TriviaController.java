@@ -1,13 +1,37 @@
 package trv.triviaapp.controller;
 
-import com.google.gson.Gson;
 import java.io.IOException;
-import java.net.MalformedURLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import javax.swing.JOptionPane;
 import javax.swing.SwingUtilities;
+import trv.triviaapp.api.QuestionPrefetcher;
+import trv.triviaapp.api.QuestionSource;
 import trv.triviaapp.api.TriviaApi;
+import trv.triviaapp.engine.AnswerRecord;
+import trv.triviaapp.engine.GameListener;
+import trv.triviaapp.engine.GameSession;
+import trv.triviaapp.engine.RoundTimer;
+import trv.triviaapp.events.QuestionDisplayedEvent;
+import trv.triviaapp.metrics.LatencyHistogram;
+import trv.triviaapp.metrics.Metrics;
+import trv.triviaapp.model.AnswerOptions;
 import trv.triviaapp.model.Question;
 import trv.triviaapp.model.QuestionSet;
+import trv.triviaapp.store.GameResult;
+import trv.triviaapp.store.Leaderboard;
+import trv.triviaapp.store.PlayerStats;
+import trv.triviaapp.store.QuestionStore;
+import trv.triviaapp.store.ScoreLog;
+import trv.triviaapp.store.SeenFilteringSource;
+import trv.triviaapp.store.SeenQuestions;
+import trv.triviaapp.store.StoreBackedSource;
 import trv.triviaapp.ui.MainForm;
 import trv.triviaapp.ui.MultipleChoiceForm;
 import trv.triviaapp.ui.TrueFalseForm;
@@ -16,139 +40,419 @@ import trv.triviaapp.ui.TrueFalseForm;
  * Controller for managing the trivia game logic.
  * This controller handles fetching questions, starting a new game,
  * navigating through questions, and submitting answers.
+ * The rules of the game live in {@link GameSession}; the controller drives a session
+ * from the Swing forms and renders its events.
  */
-public class TriviaController {
+public final class TriviaController implements GameListener {
+    /** Background executor for network and parsing work, one virtual thread per task. */
+    private static final ExecutorService BACKGROUND = Executors.newVirtualThreadPerTaskExecutor();
+
+    private static final Logger LOG = Logger.getLogger(TriviaController.class.getName());
+    /** Time from a session moving to a question until its form is shown. */
+    private static final LatencyHistogram SWITCH_TIMER = Metrics.timer("ui.nextQuestion");
+    /** Time spent filling a form with a question. */
+    private static final LatencyHistogram RENDER_TIMER = Metrics.timer("ui.setQuestion");
+    /** Time from clicking Play until the first question is shown. */
+    private static final LatencyHistogram FIRST_QUESTION_TIMER = Metrics.timer("game.timeToFirstQuestion");
+    /** Time from a session moving to a question until the swapped card has been painted. */
+    private static final LatencyHistogram TRANSITION_TIMER = Metrics.timer("ui.transition");
+    /** Transitions that took longer than {@link #FRAME_BUDGET_NANOS}. */
+    private static final LongAdder TRANSITIONS_OVER_BUDGET = Metrics.counter("ui.transition.overBudget");
+    /** One frame at 60 Hz, the budget for moving from one question to the next. */
+    private static final long FRAME_BUDGET_NANOS = 16_666_667L;
+    /** Card names of the question panels. */
+    private static final String MULTIPLE_CARD = "multiple";
+    private static final String BOOLEAN_CARD = "boolean";
+
+    /** Time limit of each question, from the {@code trivia.round.seconds} system property; 0 for untimed games. */
+    private static final long ROUND_NANOS = TimeUnit.SECONDS.toNanos(Long.getLong("trivia.round.seconds", 20));
+
+    /** Number of question sets kept ready ahead of the next game. */
+    private static final int PREFETCH_CAPACITY = 2;
+    /** The player whose seen questions are filtered out, from the {@code trivia.player} system property. */
+    private static final String PLAYER = System.getProperty("trivia.player", System.getProperty("user.name", "player"));
+
     private TriviaApi api;
-    private QuestionSet questionSet;
+    private QuestionPrefetcher prefetcher;
+    private QuestionStore store;
+    private StoreBackedSource source;
+    private SeenQuestions seen;
+    private QuestionSource gameSource;
+    private ScoreLog scores;
+    private PlayerStats stats;
+    private GameSession session;
     private MainForm mainForm;
     private MultipleChoiceForm mcForm;
     private TrueFalseForm tfForm;
-    private int count;    
+    private CompletableFuture<QuestionSet> pendingGame;
+    private long gameRequestedAt;
+    private long lastTimeToFirstQuestion = -1;
+    private volatile long lastTransitionNanos = -1;
+
     /**
-     * Constructor that initializes the TriviaController and the required UI forms.
+     * Constructor that initializes the TriviaController and shows the main form.
      * It connects to the trivia API and prepares the UI for interaction.
-     * 
-     * @throws MalformedURLException if the URL for the API is malformed
      */
-    public TriviaController() throws MalformedURLException {
-        System.out.println("Initializing TriviaController");
+    public TriviaController() {
+        LOG.fine("Initializing TriviaController");
         try {
             this.api = new TriviaApi();
+            try {
+                store = new QuestionStore(QuestionStore.defaultPath());
+                LOG.log(Level.INFO, "Question store: {0} questions, loaded in {1} us",
+                        new Object[] {store.size(), store.getLoadTimeNanos() / 1_000});
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Question store unavailable: {0}", e.getMessage());
+            }
+            source = new StoreBackedSource(api::fetchQuestionSet, store, Boolean.getBoolean("trivia.offline"));
+            gameSource = source;
+            try {
+                seen = new SeenQuestions(SeenQuestions.defaultPath());
+                gameSource = new SeenFilteringSource(source, seen, PLAYER, TriviaApi.DEFAULT_AMOUNT,
+                        SeenFilteringSource.DEFAULT_ATTEMPTS);
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Seen questions unavailable: {0}", e.getMessage());
+            }
+            try {
+                scores = new ScoreLog(ScoreLog.defaultPath(), new Leaderboard());
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Score log unavailable: {0}", e.getMessage());
+            }
+            try {
+                stats = new PlayerStats(PlayerStats.defaultPath());
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Player stats unavailable: {0}", e.getMessage());
+            }
+            prefetcher = new QuestionPrefetcher(this::fetchQuestions, PREFETCH_CAPACITY, BACKGROUND);
+            prefetcher.start();
+            // The question panels are only built when a question of their type is first shown
             mainForm = new MainForm(this);
-            mcForm = new MultipleChoiceForm(this);
-            tfForm = new TrueFalseForm(this);
-            // Set the location of the forms to center on the screen
             mainForm.setLocationRelativeTo(null);
-            mcForm.setLocationRelativeTo(null);
-            tfForm.setLocationRelativeTo(null);
             
             mainForm.setVisible(true);
         } catch (Exception e) {
-            System.err.println("Error: " + e.getMessage());
-            e.printStackTrace();
+            LOG.log(Level.SEVERE, "Could not initialize the game", e);
         }      
     }
     
     /**
-     * Fetches trivia questions from the API and stores them in the question set.
+     * Requests a new question set from the API, decoding it straight from the response stream.
+     * Every successfully fetched question is persisted to the local store. When the API is unreachable
+     * or refuses the request (e.g. because of rate limiting), or when offline mode is enabled with the
+     * {@code trivia.offline} system property, the game is served from the local store instead.
+     * Questions the player was already asked in earlier games are avoided where possible.
+     * This method does not touch any UI state, so it is safe to call from a background thread.
      * 
+     * @return The parsed question set
      * @throws IOException if an error occurs while making the API request or parsing the response
+     *         and the local store cannot serve a game either
      */
-    public void getQuestions() throws IOException {
-        api = new TriviaApi();
-        int cnn = api.connect();
-        
-        if (cnn == 200) {
-            String json = api.getJSON();
-            System.out.println(json);
-                
-            Gson gson = new Gson();
-            questionSet = gson.fromJson(json, QuestionSet.class);
-            count = 0;
-        } else {
-            System.out.println("Error " + cnn);
-        }
+    public QuestionSet fetchQuestions() throws IOException {
+        return gameSource.fetch();
     }
-    
+
     /**
-     * Starts a new game by fetching trivia questions and displaying the first question.
+     * Returns the local question store.
      * 
-     * @throws IOException if an error occurs while fetching the questions
+     * @return The question store, or null if it could not be opened
      */
-    public void startNewGame() throws IOException {        
-        try {
-            getQuestions();
-            
-            if (questionSet != null && questionSet.getQuestions() != null && !questionSet.getQuestions().isEmpty()) {
-                questionSet.setQuestionIndex(0);
-                
-                SwingUtilities.invokeLater(new Runnable() {
-                    @Override
-                    public void run() {
-                        try {
-                            nextQuestion();
-                        } catch (Exception e) {
-                            JOptionPane.showMessageDialog(mainForm, "Error: " + e.getMessage(),
-                                    "Error", JOptionPane.ERROR_MESSAGE);     
-                        }
-                    }
-                });
+    public QuestionStore getStore() {
+        return store;
+    }
+
+    /**
+     * Starts a new game without blocking the Event Dispatch Thread.
+     * The question set is taken from the prefetch buffer when one is ready; otherwise connecting,
+     * reading and parsing run on a background thread while the main form shows a loading state.
+     * Only the parsed question set is handed back to the EDT.
+     * Calls made while a game is still loading are ignored.
+     */
+    public void startNewGame() {
+        if (pendingGame != null && !pendingGame.isDone()) {
+            return;
+        }
+        gameRequestedAt = System.nanoTime();
+        mainForm.setLoading(true);
+
+        pendingGame = CompletableFuture.supplyAsync(() -> {
+            try {
+                return prefetcher.fetch();
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, BACKGROUND);
+
+        pendingGame.whenComplete((fetched, error) -> SwingUtilities.invokeLater(() -> {
+            mainForm.setLoading(false);
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                JOptionPane.showMessageDialog(mainForm, "Error starting new game: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
             } else {
-                JOptionPane.showMessageDialog(mainForm, "Failed to load questions", "Error", JOptionPane.ERROR_MESSAGE);
+                beginGame(fetched);
             }
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(mainForm, "Error starting new game: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        } 
-    }    
-    
+        }));
+    }
+
+    /**
+     * Starts a session over a freshly loaded question set and shows its first question.
+     * Must be called on the Event Dispatch Thread.
+     * 
+     * @param fetched The question set to play, may be null if loading failed
+     */
+    private void beginGame(QuestionSet fetched) {
+        if (fetched != null && fetched.getQuestions() != null && !fetched.getQuestions().isEmpty()) {
+            if (seen != null) {
+                // Only games that are actually played count, not the ones waiting in the prefetch buffer
+                seen.markSeen(PLAYER, fetched.getQuestions());
+            }
+            session = new GameSession(fetched.getQuestions(), ROUND_NANOS, RoundTimer.shared());
+            session.addListener(this);
+            if (stats != null) {
+                session.addListener(stats.listenerFor(PLAYER));
+            }
+            session.start();
+
+            // onQuestion() swaps the first card in, so measure once its paint has run
+            SwingUtilities.invokeLater(() -> {
+                lastTimeToFirstQuestion = System.nanoTime() - gameRequestedAt;
+                FIRST_QUESTION_TIMER.record(lastTimeToFirstQuestion);
+                LOG.log(Level.FINE, "Time to first question: {0} ms (prefetch hits {1}, misses {2})",
+                        new Object[] {lastTimeToFirstQuestion / 1_000_000, prefetcher.getHits(), prefetcher.getMisses()});
+            });
+        } else {
+            JOptionPane.showMessageDialog(mainForm, "Failed to load questions", "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * Returns the prefetch buffer that serves new games, e.g. to inspect its hit and miss counts.
+     * 
+     * @return The question prefetcher
+     */
+    public QuestionPrefetcher getPrefetcher() {
+        return prefetcher;
+    }
+
+    /**
+     * Returns the time between the last game request and its first question being shown.
+     * 
+     * @return The time-to-first-question in nanoseconds, or -1 if no game has started yet
+     */
+    public long getLastTimeToFirstQuestion() {
+        return lastTimeToFirstQuestion;
+    }
+
+    /**
+     * Returns the time the last question-to-question transition took, from the session moving on
+     * until the new question had been painted. It should stay under one frame (about 16.7 ms).
+     * 
+     * @return The transition time in nanoseconds, or -1 if no question has been shown yet
+     */
+    public long getLastTransitionNanos() {
+        return lastTransitionNanos;
+    }
+
+    /**
+     * Returns the game session currently being played.
+     * 
+     * @return The current session, or null if no game has been started
+     */
+    public GameSession getSession() {
+        return session;
+    }
+
     /**
-     * Displays the next question in the trivia game.
+     * Displays the current question of the session.
      * Depending on the type of question (multiple choice or true/false),
-     * the appropriate form is displayed.
+     * the matching pre-built panel is filled in and brought to the front of the main window.
+     * 
+     * @param session The session that moved on
+     * @param next The question to show
+     * @param options The answers in display order
      */
-    public void nextQuestion() {        
+    @Override
+    public void onQuestion(GameSession session, Question next, AnswerOptions options) {
+        long start = System.nanoTime();
+        if (SwingUtilities.isEventDispatchThread()) {
+            showQuestion(session, next, options, start);
+        } else {
+            SwingUtilities.invokeLater(() -> showQuestion(session, next, options, start));
+        }
+    }
+
+    /**
+     * Fills the panel matching the question type and swaps it in.
+     * The transition is measured once the events queued behind the swap, including its paint, have run.
+     * Must be called on the Event Dispatch Thread.
+     * 
+     * @param session The session that moved on
+     * @param next The question to show
+     * @param options The answers in display order
+     * @param start When the session moved on, from {@link System#nanoTime()}
+     */
+    private void showQuestion(GameSession session, Question next, AnswerOptions options, long start) {
+        QuestionDisplayedEvent displayed = new QuestionDisplayedEvent();
+        displayed.begin();
         try {
-            if(questionSet != null && questionSet.hasMoreQuestions()) {
-                Question next = questionSet.getCurrentQuestion();
-                
-                // Hide both forms initially
-                mcForm.setVisible(false);
-                tfForm.setVisible(false);
-                
-                SwingUtilities.invokeLater(new Runnable() {
-                    @Override
-                    public void run() {
-                        try {
-                            // Show the appropriate form based on the question type
-                            if(next.isMultipleChoice()) {
-                                mcForm.setQuestion(next);
-                                mcForm.repaint();
-                                mcForm.revalidate();
-                                mcForm.setVisible(true);
-                            } else {
-                                tfForm.setQuestion(next);
-                                tfForm.repaint();
-                                tfForm.revalidate();
-                                tfForm.setVisible(true);
-                            }
-                        } catch (Exception e) {
-                            JOptionPane.showMessageDialog(null, e);
-                        }
-                    }
-                });
+            long render = System.nanoTime();
+            if (next.isMultipleChoice()) {
+                multipleChoiceForm().setQuestion(next, options);
+                RENDER_TIMER.recordSince(render);
+                mainForm.showCard(MULTIPLE_CARD);
             } else {
-                mcForm.setVisible(false);
-                tfForm.setVisible(false);
-                
-                JOptionPane.showMessageDialog(null, "End of Game! You did " + count + "/" + questionSet.getSize());
-                
-                // Display the main form after the game ends
-                mainForm.setVisible(true);
+                trueFalseForm().setQuestion(next, options);
+                RENDER_TIMER.recordSince(render);
+                mainForm.showCard(BOOLEAN_CARD);
             }
+            SWITCH_TIMER.recordSince(start);
+            if (displayed.shouldCommit()) {
+                displayed.index = session.getCursor();
+                displayed.category = next.getCategory();
+                displayed.difficulty = next.getDifficulty();
+                displayed.type = next.getType();
+                displayed.commit();
+            }
+            // Runs once the swapped card has been painted: the think time starts now
+            int index = session.getCursor();
+            SwingUtilities.invokeLater(() -> {
+                if (session.getCursor() == index) {
+                    session.markPresented();
+                }
+                long transition = System.nanoTime() - start;
+                lastTransitionNanos = transition;
+                TRANSITION_TIMER.record(transition);
+                if (transition > FRAME_BUDGET_NANOS) {
+                    TRANSITIONS_OVER_BUDGET.increment();
+                    LOG.log(Level.FINE, "Question transition took {0} us", transition / 1_000);
+                }
+            });
         } catch (Exception e) {
+            LOG.log(Level.SEVERE, "Could not show question", e);
             JOptionPane.showMessageDialog(mainForm, "Error: " + e.getMessage(), 
                                          "Error", JOptionPane.ERROR_MESSAGE);
-        } 
+        }
+    }
+
+    /**
+     * Builds the question panels ahead of the first question, e.g. once their fonts have been preloaded,
+     * so the first question does not pay for building them. Panels that already exist are kept.
+     * Must be called on the Event Dispatch Thread.
+     */
+    public void preloadForms() {
+        long start = System.nanoTime();
+        multipleChoiceForm();
+        trueFalseForm();
+        LOG.log(Level.FINE, "Question forms built in {0} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Returns the multiple choice panel, building it and adding it as a card on first use.
+     * Must be called on the Event Dispatch Thread.
+     * 
+     * @return The multiple choice panel
+     */
+    private MultipleChoiceForm multipleChoiceForm() {
+        if (mcForm == null) {
+            mcForm = new MultipleChoiceForm(this);
+            mainForm.addCard(MULTIPLE_CARD, mcForm);
+        }
+        return mcForm;
+    }
+
+    /**
+     * Returns the true/false panel, building it and adding it as a card on first use.
+     * Must be called on the Event Dispatch Thread.
+     * 
+     * @return The true/false panel
+     */
+    private TrueFalseForm trueFalseForm() {
+        if (tfForm == null) {
+            tfForm = new TrueFalseForm(this);
+            mainForm.addCard(BOOLEAN_CARD, tfForm);
+        }
+        return tfForm;
+    }
+
+    /**
+     * Shows whether the answer was correct and the points it scored, and the correct answer if it was not.
+     * A question whose time ran out is reported on the round timer's thread; it is shown on the
+     * Event Dispatch Thread, after which the session moves on.
+     * 
+     * @param session The session that was answered
+     * @param answer The recorded answer
+     */
+    @Override
+    public void onAnswer(GameSession session, AnswerRecord answer) {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(() -> {
+                if (session == this.session) {
+                    onAnswer(session, answer);
+                    session.advance();
+                }
+            });
+            return;
+        }
+        LOG.log(Level.FINE, "Question {0} answered {1} in {2} ms",
+                new Object[] {answer.questionIndex() + 1, answer.timedOut() ? "too late" : answer.correct() ? "correctly" : "incorrectly",
+                    answer.thinkNanos() / 1_000_000});
+
+        String message;
+        if (answer.correct()) {
+            message = "Correct! +" + answer.points() + " points";
+        } else if (answer.timedOut()) {
+            message = "Time's up! The correct answer was: " + answer.question().getCorrectAnsw();
+        } else {
+            message = "Incorrect. The correct answer was: " + answer.question().getCorrectAnsw();
+        }
+
+        JOptionPane.showMessageDialog(
+                mainForm,
+                message,
+                "Result",
+                answer.correct() ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.ERROR_MESSAGE
+        );
+    }
+
+    /**
+     * Records the result in the score log, shows the final score and the player's rank, and swaps
+     * the main menu back in. The seen questions and player stats are saved in the background.
+     * 
+     * @param session The finished session
+     */
+    @Override
+    public void onGameFinished(GameSession session) {
+        if (seen != null) {
+            BACKGROUND.execute(() -> {
+                try {
+                    seen.save();
+                } catch (IOException e) {
+                    LOG.log(Level.WARNING, "Could not save seen questions", e);
+                }
+            });
+        }
+        if (stats != null) {
+            BACKGROUND.execute(() -> {
+                try {
+                    stats.save();
+                } catch (IOException e) {
+                    LOG.log(Level.WARNING, "Could not save player stats", e);
+                }
+            });
+        }
+
+        String message = "End of Game! You did " + session.getScore() + "/" + session.getSize()
+                + " for " + session.getPoints() + " points";
+        if (scores != null) {
+            scores.record(new GameResult(PLAYER, session.getPoints(), session.getScore(), session.getSize(),
+                    System.currentTimeMillis()));
+            Leaderboard leaderboard = scores.getLeaderboard();
+            message += "\nYour best: " + leaderboard.best(PLAYER).points() + " points, rank "
+                    + leaderboard.rank(PLAYER) + " of " + leaderboard.size();
+        }
+        JOptionPane.showMessageDialog(mainForm, message);
+
+        mainForm.showCard(MainForm.MENU_CARD);
     }
     
     /**
@@ -158,8 +462,8 @@ public class TriviaController {
      */    
     public int [] getData() {
         int [] data = new int[2];
-        data[0] = questionSet.getQuestionIndex();
-        data[1] = questionSet.getSize();
+        data[0] = session.getCursor();
+        data[1] = session.getSize();
 
         return data;
     }
@@ -169,30 +473,11 @@ public class TriviaController {
      * If correct, a success message is shown, otherwise the correct answer is displayed.
      * After answering, the next question is shown.
      * 
-     * @param answer The player's answer to the current question
-     */
-    public void submitAnswer(String answer) {
-        boolean isCorrect = questionSet.answer(answer);
-        Question currentQuestion = questionSet.getCurrentQuestion();        
-        if (isCorrect) {
-            System.out.println("Correct");
-            count++;
-        } else
-            System.out.println("Incorrect");
-        
-        String message = isCorrect ? "Correct!" : "Incorrect. The correct answer was: " + currentQuestion.getCorrectAnsw();
-
-        JOptionPane.showMessageDialog(
-                currentQuestion.isMultipleChoice() ? mcForm : tfForm,
-                message,
-                "Result",
-                isCorrect ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.ERROR_MESSAGE
-        );        
-        
-        // If there are more questions, move to the next one
-        if(questionSet.hasMoreQuestions()) {
-            questionSet.nextQuestion(); 
-            nextQuestion();
+     * @param optionIndex The slot of the answer the player picked, as shown by the current form
+     */
+    public void submitAnswer(int optionIndex) {
+        if (session != null && session.tryAnswer(optionIndex)) {
+            session.advance();
         }
     }
     
@@ -0,0 +1,28 @@
+package trv.triviaapp.engine;
+
+import trv.triviaapp.model.AnswerOptions;
+import trv.triviaapp.model.Question;
+
+/**
+ * One answered question in a game session's history.
+ *
+ * @param questionIndex The position of the question in the game
+ * @param question The question that was answered
+ * @param options The answers as they were shown
+ * @param chosenIndex The slot the player picked, or -1 if the time limit ran out first
+ * @param correct Whether the picked slot held the correct answer
+ * @param thinkNanos The time from the question being presented until the answer
+ * @param points The points scored, weighted by speed
+ */
+public record AnswerRecord(int questionIndex, Question question, AnswerOptions options,
+        int chosenIndex, boolean correct, long thinkNanos, int points) {
+
+    /**
+     * Checks whether the question was left unanswered until its time limit ran out.
+     *
+     * @return true if the time ran out
+     */
+    public boolean timedOut() {
+        return chosenIndex < 0;
+    }
+}
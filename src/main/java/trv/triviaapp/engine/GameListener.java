@@ -0,0 +1,39 @@
+package trv.triviaapp.engine;
+
+import trv.triviaapp.model.AnswerOptions;
+import trv.triviaapp.model.Question;
+
+/**
+ * Receives the events of a {@link GameSession}, e.g. to render them in a user interface.
+ * Events are delivered on the thread that drives the session, after the session has released its
+ * lock, so listeners may block or call back into the session. All methods do nothing by default.
+ */
+public interface GameListener {
+
+    /**
+     * Called when a question becomes the current question.
+     *
+     * @param session The session that moved on
+     * @param question The question to show
+     * @param options The answers in the order they should be shown
+     */
+    default void onQuestion(GameSession session, Question question, AnswerOptions options) {
+    }
+
+    /**
+     * Called after the player answered the current question.
+     *
+     * @param session The session that was answered
+     * @param answer The recorded answer
+     */
+    default void onAnswer(GameSession session, AnswerRecord answer) {
+    }
+
+    /**
+     * Called once when the last question has been answered and the session moved past it.
+     *
+     * @param session The finished session
+     */
+    default void onGameFinished(GameSession session) {
+    }
+}
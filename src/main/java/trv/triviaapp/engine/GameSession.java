@@ -0,0 +1,477 @@
+package trv.triviaapp.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import trv.triviaapp.events.AnswerSubmittedEvent;
+import trv.triviaapp.events.GameFinishedEvent;
+import trv.triviaapp.metrics.LatencyHistogram;
+import trv.triviaapp.metrics.Metrics;
+import trv.triviaapp.model.AnswerOptions;
+import trv.triviaapp.model.Question;
+
+/**
+ * A single game of trivia, independent of any user interface.
+ * <p>
+ * The session owns its cursor, score and answer history, and reports progress to its
+ * {@link GameListener}s. Questions are immutable and may be shared between sessions, so many
+ * sessions can run side by side in one process. A session is thread-safe, but it is meant to be
+ * driven by one player at a time: {@link #start()}, then {@link #submitAnswer(int)} and
+ * {@link #advance()} for every question.
+ * <p>
+ * Think time runs from the moment a question is presented (see {@link #markPresented()}) until it is
+ * answered, and a correct answer scores between {@link #MIN_POINTS} and {@link #MAX_POINTS} points,
+ * fewer the longer it took. A timed session gives every question a time limit: when it runs out, the
+ * question is recorded as a wrong answer and the listeners get {@link GameListener#onAnswer} on the
+ * scheduler's thread, or, without a scheduler, the next time the session is used.
+ * <p>
+ * Listeners are notified after the session's lock is released, so a listener that blocks, e.g. on a
+ * modal dialog or on I/O, never holds up other threads using the session, such as its timer.
+ */
+public class GameSession {
+    /** Points for a correct answer given right away. */
+    public static final int MAX_POINTS = 1000;
+    /** Points for a correct answer given at the end of the speed window. */
+    public static final int MIN_POINTS = 500;
+    /** The speed window of untimed sessions; timed sessions use their time limit. */
+    public static final long DEFAULT_SPEED_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(20);
+    private static final LatencyHistogram THINK_TIMER = Metrics.timer("game.thinkTime");
+
+    private final List<Question> questions;
+    private final List<GameListener> listeners = new CopyOnWriteArrayList<>();
+    private final List<AnswerRecord> history;
+    private int cursor = -1;
+    private int score;
+    private AnswerOptions currentOptions;
+    private boolean answered;
+    private long presentedAt;
+    private GameFinishedEvent gameEvent;
+    private final long timeLimitNanos;
+    private final ScheduledExecutorService timer;
+    private ScheduledFuture<?> timeout;
+    private int points;
+
+    /**
+     * Creates an untimed session over the given questions.
+     *
+     * @param questions The questions to play, in order
+     */
+    public GameSession(List<Question> questions) {
+        this(questions, 0, null);
+    }
+
+    /**
+     * Creates a session over the given questions where every question has a time limit.
+     *
+     * @param questions The questions to play, in order
+     * @param timeLimitNanos The time each question may take, or 0 for an untimed session
+     * @param timer The scheduler that ends a question when its time runs out, e.g. {@link RoundTimer#shared()},
+     *              or null to only check the time limit when the session is next used
+     */
+    public GameSession(List<Question> questions, long timeLimitNanos, ScheduledExecutorService timer) {
+        if (timeLimitNanos < 0) {
+            throw new IllegalArgumentException("timeLimitNanos must not be negative");
+        }
+        this.questions = List.copyOf(questions);
+        this.history = new ArrayList<>(this.questions.size());
+        this.timeLimitNanos = timeLimitNanos;
+        this.timer = timer;
+    }
+
+    /**
+     * Registers a listener for the events of this session.
+     *
+     * @param listener The listener to add
+     */
+    public void addListener(GameListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a previously registered listener.
+     *
+     * @param listener The listener to remove
+     */
+    public void removeListener(GameListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Starts (or restarts) the game at its first question.
+     */
+    public void start() {
+        List<Runnable> events = new ArrayList<>(1);
+        synchronized (this) {
+            cancelTimeout();
+            cursor = -1;
+            score = 0;
+            points = 0;
+            history.clear();
+            gameEvent = new GameFinishedEvent();
+            gameEvent.begin();
+            moveTo(0, events);
+        }
+        notifyListeners(events);
+    }
+
+    /**
+     * Records the player's answer to the current question.
+     * An answer given after the time limit ran out is recorded as timed out instead.
+     *
+     * @param optionIndex The slot of the answer the player picked in {@link #getCurrentOptions()}
+     * @return The recorded answer
+     * @throws IllegalStateException if there is no current question or it was already answered
+     */
+    public AnswerRecord submitAnswer(int optionIndex) {
+        List<Runnable> events = new ArrayList<>(1);
+        AnswerRecord record;
+        synchronized (this) {
+            if (currentOptions == null) {
+                throw new IllegalStateException("There is no question to answer");
+            }
+            if (answered) {
+                throw new IllegalStateException("Question " + (cursor + 1) + " was already answered");
+            }
+            record = answer(optionIndex, events);
+        }
+        notifyListeners(events);
+        return record;
+    }
+
+    /**
+     * Records the player's answer to the current question unless it was already answered or timed
+     * out, checking and recording in one step so a question expiring at the same time cannot make the
+     * call fail. An answer given after the time limit ran out is recorded as timed out instead.
+     *
+     * @param optionIndex The slot of the answer the player picked in {@link #getCurrentOptions()}
+     * @return true if the answer was recorded, false if there was no open question to answer
+     */
+    public boolean tryAnswer(int optionIndex) {
+        List<Runnable> events = new ArrayList<>(1);
+        synchronized (this) {
+            if (currentOptions == null || answered) {
+                return false;
+            }
+            answer(optionIndex, events);
+        }
+        notifyListeners(events);
+        return true;
+    }
+
+    /**
+     * Records an answer to the open current question, as timed out if it came too late. Must be
+     * called while holding the lock.
+     *
+     * @param optionIndex The slot the player picked
+     * @param events Receives the notifications to send once the lock is released
+     * @return The recorded answer
+     */
+    private AnswerRecord answer(int optionIndex, List<Runnable> events) {
+        long thinkNanos = System.nanoTime() - presentedAt;
+        if (timeLimitNanos > 0 && thinkNanos >= timeLimitNanos) {
+            return record(-1, timeLimitNanos, events);
+        }
+        return record(optionIndex, thinkNanos, events);
+    }
+
+    /**
+     * Ends the current question if its time limit has run out, recording it as timed out.
+     * Sessions without a scheduler rely on this being called before they are used.
+     *
+     * @return true if the question timed out just now
+     */
+    public boolean checkTimeout() {
+        List<Runnable> events = new ArrayList<>(1);
+        boolean timedOut;
+        synchronized (this) {
+            timedOut = timeOutIfDue(events);
+        }
+        notifyListeners(events);
+        return timedOut;
+    }
+
+    /**
+     * Records the current question as timed out if its time limit has run out. Must be called while
+     * holding the lock.
+     *
+     * @param events Receives the notifications to send once the lock is released
+     * @return true if the question timed out just now
+     */
+    private boolean timeOutIfDue(List<Runnable> events) {
+        if (currentOptions == null || answered || timeLimitNanos == 0
+                || System.nanoTime() - presentedAt < timeLimitNanos) {
+            return false;
+        }
+        record(-1, timeLimitNanos, events);
+        return true;
+    }
+
+    /**
+     * Records an answer to the current question and scores it. Must be called while holding the lock.
+     *
+     * @param optionIndex The slot the player picked, or -1 if the time ran out
+     * @param thinkNanos The time taken to answer
+     * @param events Receives the notifications to send once the lock is released
+     * @return The recorded answer
+     */
+    private AnswerRecord record(int optionIndex, long thinkNanos, List<Runnable> events) {
+        cancelTimeout();
+        boolean correct = optionIndex >= 0 && currentOptions.isCorrect(optionIndex);
+        int earned = correct ? points(thinkNanos, timeLimitNanos > 0 ? timeLimitNanos : DEFAULT_SPEED_WINDOW_NANOS) : 0;
+        if (correct) {
+            score++;
+        }
+        points += earned;
+        answered = true;
+        THINK_TIMER.record(thinkNanos);
+        AnswerRecord record = new AnswerRecord(cursor, questions.get(cursor), currentOptions, optionIndex, correct,
+                thinkNanos, earned);
+        AnswerSubmittedEvent event = new AnswerSubmittedEvent();
+        if (event.shouldCommit()) {
+            event.index = cursor;
+            event.correct = correct;
+            event.thinkTime = thinkNanos;
+            event.timedOut = record.timedOut();
+            event.points = earned;
+            event.commit();
+        }
+        history.add(record);
+        events.add(() -> {
+            for (GameListener listener : listeners) {
+                listener.onAnswer(this, record);
+            }
+        });
+        return record;
+    }
+
+    /**
+     * Returns the points for a correct answer: {@link #MAX_POINTS} when given right away, falling
+     * linearly to {@link #MIN_POINTS} at the end of the speed window.
+     *
+     * @param thinkNanos The time taken to answer
+     * @param windowNanos The speed window
+     * @return The points
+     */
+    public static int points(long thinkNanos, long windowNanos) {
+        double late = Math.min(1.0, Math.max(0, thinkNanos) / (double) windowNanos);
+        return (int) Math.round(MAX_POINTS - (MAX_POINTS - MIN_POINTS) * late);
+    }
+
+    /**
+     * Moves on to the next question, or finishes the game after the last one.
+     *
+     * @return true if there is a new current question, false if the game is finished
+     */
+    public boolean advance() {
+        List<Runnable> events = new ArrayList<>(1);
+        boolean moved;
+        synchronized (this) {
+            moved = !isFinished() && moveTo(cursor + 1, events);
+        }
+        notifyListeners(events);
+        return moved;
+    }
+
+    /**
+     * Makes the question at the given index current. Must be called while holding the lock.
+     *
+     * @param index The index of the new current question
+     * @param events Receives the notifications to send once the lock is released
+     * @return true if there is a new current question, false if the game is finished
+     */
+    private boolean moveTo(int index, List<Runnable> events) {
+        cursor = index;
+        answered = false;
+        if (index >= questions.size()) {
+            cancelTimeout();
+            currentOptions = null;
+            if (gameEvent.shouldCommit()) {
+                gameEvent.score = score;
+                gameEvent.questions = questions.size();
+                gameEvent.points = points;
+                gameEvent.commit();
+            }
+            events.add(() -> {
+                for (GameListener listener : listeners) {
+                    listener.onGameFinished(this);
+                }
+            });
+            return false;
+        }
+        Question question = questions.get(index);
+        currentOptions = question.shuffledOptions();
+        presentedAt = System.nanoTime();
+        armTimeout();
+        AnswerOptions options = currentOptions;
+        events.add(() -> {
+            for (GameListener listener : listeners) {
+                listener.onQuestion(this, question, options);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Sends the notifications collected while the lock was held, in order. Must be called without
+     * holding the lock.
+     *
+     * @param events The notifications
+     */
+    private void notifyListeners(List<Runnable> events) {
+        for (Runnable event : events) {
+            event.run();
+        }
+    }
+
+    /**
+     * Marks the current question as presented to the player, which starts its think time and time limit.
+     * Front ends call this once the question is actually on screen; until then they count from the
+     * moment the session moved to the question. It has no effect once the question is answered.
+     */
+    public synchronized void markPresented() {
+        if (currentOptions == null || answered) {
+            return;
+        }
+        presentedAt = System.nanoTime();
+        armTimeout();
+    }
+
+    /**
+     * Schedules the end of the current question's time limit, replacing any earlier schedule.
+     */
+    private void armTimeout() {
+        cancelTimeout();
+        if (timer != null && timeLimitNanos > 0) {
+            int index = cursor;
+            timeout = timer.schedule(() -> expire(index), timeLimitNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void cancelTimeout() {
+        if (timeout != null) {
+            timeout.cancel(false);
+            timeout = null;
+        }
+    }
+
+    /**
+     * Runs on the scheduler when a time limit runs out.
+     *
+     * @param index The question the time limit belongs to
+     */
+    private void expire(int index) {
+        List<Runnable> events = new ArrayList<>(1);
+        synchronized (this) {
+            if (cursor == index) {
+                timeOutIfDue(events);
+            }
+        }
+        notifyListeners(events);
+    }
+
+    /**
+     * Returns the current question.
+     *
+     * @return The current question, or null if the game has not started or is finished
+     */
+    public synchronized Question getCurrentQuestion() {
+        return currentOptions == null ? null : questions.get(cursor);
+    }
+
+    /**
+     * Returns the answers of the current question in display order.
+     *
+     * @return The current options, or null if the game has not started or is finished
+     */
+    public synchronized AnswerOptions getCurrentOptions() {
+        return currentOptions;
+    }
+
+    /**
+     * Returns the index of the current question.
+     *
+     * @return The cursor, -1 before the game starts and the question count once it is finished
+     */
+    public synchronized int getCursor() {
+        return cursor;
+    }
+
+    /**
+     * Returns the number of questions in the game.
+     *
+     * @return The question count
+     */
+    public int getSize() {
+        return questions.size();
+    }
+
+    /**
+     * Returns the number of correct answers so far.
+     *
+     * @return The score
+     */
+    public synchronized int getScore() {
+        return score;
+    }
+
+    /**
+     * Returns the points scored so far, weighted by speed.
+     *
+     * @return The points
+     */
+    public synchronized int getPoints() {
+        return points;
+    }
+
+    /**
+     * Returns the time limit of each question.
+     *
+     * @return The time limit in nanoseconds, or 0 if the session is untimed
+     */
+    public long getTimeLimitNanos() {
+        return timeLimitNanos;
+    }
+
+    /**
+     * Returns the time left to answer the current question.
+     *
+     * @return The time left in nanoseconds (0 once it ran out), or -1 if the session is untimed
+     *         or there is no open question
+     */
+    public synchronized long getTimeLeftNanos() {
+        if (timeLimitNanos == 0 || currentOptions == null || answered) {
+            return -1;
+        }
+        return Math.max(0, timeLimitNanos - (System.nanoTime() - presentedAt));
+    }
+
+    /**
+     * Checks whether the current question has been answered.
+     *
+     * @return true if the player already answered the current question
+     */
+    public synchronized boolean isAnswered() {
+        return answered;
+    }
+
+    /**
+     * Checks whether the game is over.
+     *
+     * @return true once the session has moved past the last question
+     */
+    public synchronized boolean isFinished() {
+        return cursor >= questions.size();
+    }
+
+    /**
+     * Returns the answers given so far.
+     *
+     * @return A snapshot of the answer history, in order
+     */
+    public synchronized List<AnswerRecord> getHistory() {
+        return List.copyOf(history);
+    }
+}
@@ -0,0 +1,41 @@
+package trv.triviaapp.engine;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * The scheduler shared by all timed {@link GameSession}s.
+ * <p>
+ * A timed question costs one entry in the scheduler's queue, which is removed again as soon as the
+ * question is answered, so there is no thread or Swing timer per question. The single daemon thread
+ * only runs when a time limit actually runs out.
+ */
+public final class RoundTimer {
+
+    private RoundTimer() {
+    }
+
+    /**
+     * Returns the shared scheduler, creating it on first use.
+     *
+     * @return The round scheduler
+     */
+    public static ScheduledExecutorService shared() {
+        return Holder.EXECUTOR;
+    }
+
+    private static final class Holder {
+        static final ScheduledExecutorService EXECUTOR = create();
+
+        private static ScheduledExecutorService create() {
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+                Thread thread = new Thread(r, "trivia-round-timer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // Answered questions cancel their timeout; drop it from the queue right away
+            executor.setRemoveOnCancelPolicy(true);
+            return executor;
+        }
+    }
+}
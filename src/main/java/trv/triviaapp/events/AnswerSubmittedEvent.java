@@ -0,0 +1,40 @@
+package trv.triviaapp.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event for a player answering a question.
+ */
+@Name("trv.triviaapp.AnswerSubmitted")
+@Label("Answer Submitted")
+@Category({"TriviaApp", "Game"})
+@Description("A player answered a question")
+@StackTrace(false)
+public class AnswerSubmittedEvent extends Event {
+    /** The index of the question in its game. */
+    @Label("Index")
+    public int index;
+
+    /** Whether the answer was right. */
+    @Label("Correct")
+    public boolean correct;
+
+    /** The time from the question being presented until the answer. */
+    @Label("Think Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long thinkTime;
+
+    /** Whether the time limit ran out before the player answered. */
+    @Label("Timed Out")
+    public boolean timedOut;
+
+    /** The points scored for the answer. */
+    @Label("Points")
+    public int points;
+}
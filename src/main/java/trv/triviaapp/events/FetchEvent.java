@@ -0,0 +1,33 @@
+package trv.triviaapp.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one HTTP request to the Trivia API. The event spans the request from
+ * sending it until its body has been consumed.
+ */
+@Name("trv.triviaapp.Fetch")
+@Label("Question Fetch")
+@Category({"TriviaApp", "Network"})
+@Description("A request to the Trivia API")
+@StackTrace(false)
+public class FetchEvent extends Event {
+    /** The requested URL. */
+    @Label("URL")
+    public String url;
+
+    /** The HTTP status code, or 0 if no response arrived. */
+    @Label("Status")
+    public int status;
+
+    /** The number of body bytes read. */
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+}
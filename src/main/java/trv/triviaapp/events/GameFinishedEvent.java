@@ -0,0 +1,31 @@
+package trv.triviaapp.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for a whole game. The event begins when the game starts and is committed
+ * when it finishes, so its duration is the length of the game.
+ */
+@Name("trv.triviaapp.GameFinished")
+@Label("Game Finished")
+@Category({"TriviaApp", "Game"})
+@Description("A game was played to the end")
+@StackTrace(false)
+public class GameFinishedEvent extends Event {
+    /** The number of correct answers. */
+    @Label("Score")
+    public int score;
+
+    /** The number of questions in the game. */
+    @Label("Questions")
+    public int questions;
+
+    /** The points scored, weighted by speed. */
+    @Label("Points")
+    public int points;
+}
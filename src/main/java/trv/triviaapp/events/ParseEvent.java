@@ -0,0 +1,27 @@
+package trv.triviaapp.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for decoding one Trivia API response. When the response is decoded
+ * straight off the network, the event also covers reading the body.
+ */
+@Name("trv.triviaapp.Parse")
+@Label("Question Parse")
+@Category({"TriviaApp", "Network"})
+@Description("Decoding of a Trivia API response")
+@StackTrace(false)
+public class ParseEvent extends Event {
+    /** The number of questions decoded. */
+    @Label("Question Count")
+    public int questionCount;
+
+    /** The response code of the API. */
+    @Label("Response Code")
+    public int responseCode;
+}
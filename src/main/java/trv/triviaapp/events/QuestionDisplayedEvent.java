@@ -0,0 +1,36 @@
+package trv.triviaapp.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for a question being put on screen. The event only covers filling and
+ * showing the question panel on the Event Dispatch Thread; the whole switch from the previous
+ * question, including the hand-off to that thread, is measured by the {@code ui.nextQuestion} timer.
+ */
+@Name("trv.triviaapp.QuestionDisplayed")
+@Label("Question Displayed")
+@Category({"TriviaApp", "Game"})
+@Description("A question form was filled and shown")
+@StackTrace(false)
+public class QuestionDisplayedEvent extends Event {
+    /** The index of the question in its game. */
+    @Label("Index")
+    public int index;
+
+    /** The question category. */
+    @Label("Category")
+    public String category;
+
+    /** The question difficulty. */
+    @Label("Difficulty")
+    public String difficulty;
+
+    /** The question type, "multiple" or "boolean". */
+    @Label("Type")
+    public String type;
+}
@@ -0,0 +1,195 @@
+package trv.triviaapp.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * A logging handler that hands records to another handler on a background thread.
+ * <p>
+ * Records are queued in a bounded ring buffer and written by a single daemon thread, so the
+ * thread that logs never waits for console or file I/O. When the buffer is full the record is
+ * dropped rather than blocking the caller, and the number of dropped records is reported with the
+ * next record that gets through. This makes it safe to log from the Swing EDT and from request
+ * threads.
+ * <p>
+ * The source of a record is set to its logger name when it is queued, because inferring the
+ * calling method would need a stack walk on the logging thread. Loggers in this application are
+ * named after their class, so the output stays meaningful.
+ */
+public final class AsyncHandler extends Handler {
+    /** The default number of records the buffer holds. */
+    public static final int DEFAULT_CAPACITY = 8192;
+    private static final int BATCH = 256;
+    /** Queued by {@link #close()} to wake the writer up; never written. */
+    private static final LogRecord WAKE_UP = new LogRecord(Level.OFF, null);
+
+    private final Handler target;
+    private final BlockingQueue<LogRecord> buffer;
+    private final LongAdder dropped = new LongAdder();
+    private final Thread writer;
+    /**
+     * Guards setting {@link #closed} and queueing, so no record can be queued once the writer may
+     * have done its final drain.
+     */
+    private final Object lock = new Object();
+    private volatile boolean closed;
+
+    /**
+     * Creates a handler that writes to the given handler, and starts its writer thread.
+     *
+     * @param target The handler that does the actual output
+     * @param capacity The number of records the buffer holds
+     */
+    public AsyncHandler(Handler target, int capacity) {
+        this.target = target;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        setLevel(target.getLevel());
+        this.writer = new Thread(this::drainLoop, "trivia-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues a record for the writer thread. This method never blocks.
+     *
+     * @param record The record to log
+     */
+    @Override
+    public void publish(LogRecord record) {
+        if (closed || record == null || !isLoggable(record)) {
+            return;
+        }
+        // Setting the source explicitly stops the formatter from walking the writer's stack
+        record.setSourceClassName(record.getLoggerName());
+        record.setSourceMethodName(null);
+        boolean queued;
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            queued = buffer.offer(record);
+        }
+        if (!queued) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Returns the number of records dropped because the buffer was full.
+     *
+     * @return The dropped record count
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Returns the number of records waiting to be written.
+     *
+     * @return The buffered record count
+     */
+    public int getBuffered() {
+        return buffer.size();
+    }
+
+    /**
+     * Flushes the target handler. Records still in the buffer are written by the writer thread.
+     */
+    @Override
+    public void flush() {
+        target.flush();
+    }
+
+    /**
+     * Stops accepting records, waits for the writer thread to write what is left in the buffer and
+     * closes the target handler.
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+        }
+        // If the buffer is full the writer is busy and sees the flag once it is done
+        buffer.offer(WAKE_UP);
+        boolean interrupted = false;
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        target.flush();
+        target.close();
+    }
+
+    /**
+     * Writes records in batches until the handler is closed, then writes what is left and exits.
+     * Only this thread ever writes to the target handler before it is closed.
+     */
+    private void drainLoop() {
+        List<LogRecord> batch = new ArrayList<>(BATCH);
+        while (!closed) {
+            try {
+                LogRecord first = buffer.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                drain(batch);
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+        drain(batch);
+    }
+
+    /**
+     * Writes everything in the buffer, in batches, to the target handler.
+     *
+     * @param batch A scratch list, possibly already holding the first records to write
+     */
+    private void drain(List<LogRecord> batch) {
+        do {
+            buffer.drainTo(batch, BATCH - batch.size());
+            reportDropped();
+            for (LogRecord record : batch) {
+                if (record == WAKE_UP) {
+                    continue;
+                }
+                try {
+                    target.publish(record);
+                } catch (RuntimeException e) {
+                    reportError("Could not write a log record", e, ErrorManager.WRITE_FAILURE);
+                }
+            }
+            batch.clear();
+            target.flush();
+        } while (!buffer.isEmpty());
+    }
+
+    /**
+     * Writes a warning for the records dropped since the last report.
+     */
+    private void reportDropped() {
+        long lost = dropped.sumThenReset();
+        if (lost > 0) {
+            LogRecord warning = new LogRecord(Level.WARNING,
+                    "Log buffer full, dropped " + lost + " records");
+            warning.setLoggerName(AsyncHandler.class.getName());
+            warning.setSourceClassName(AsyncHandler.class.getName());
+            target.publish(warning);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package trv.triviaapp.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides which of many similar events are worth logging, e.g. one response payload in a hundred.
+ * Sampling is deterministic: every n-th call to {@link #sample()} returns true, starting with the
+ * first one.
+ */
+public class LogSampler {
+    private final long every;
+    private final AtomicLong calls = new AtomicLong();
+
+    /**
+     * Creates a sampler that keeps one event out of {@code every}.
+     *
+     * @param every The sampling interval; 1 keeps every event and 0 or less keeps none
+     */
+    public LogSampler(long every) {
+        this.every = every;
+    }
+
+    /**
+     * Checks whether the current event should be logged.
+     *
+     * @return true for one call out of every n
+     */
+    public boolean sample() {
+        if (every <= 0) {
+            return false;
+        }
+        return every == 1 || calls.getAndIncrement() % every == 0;
+    }
+}
@@ -0,0 +1,59 @@
+package trv.triviaapp.logging;
+
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import java.util.logging.Logger;
+
+/**
+ * Sets up application logging on top of {@code java.util.logging}.
+ * <p>
+ * {@link #install()} moves the handlers of the root logger behind {@link AsyncHandler}s, so log
+ * calls only queue a record, and applies the level from the {@code trivia.log.level} system property
+ * (INFO by default). Each handler buffers up to {@code trivia.log.buffer} records
+ * ({@link AsyncHandler#DEFAULT_CAPACITY} by default). Response payloads are only logged at FINEST, and only one in
+ * {@code trivia.log.payload.sample} of them (one in 100 by default).
+ */
+public final class Logging {
+    private static final LogSampler PAYLOAD_SAMPLER =
+            new LogSampler(Long.getLong("trivia.log.payload.sample", 100));
+    private static boolean installed;
+
+    private Logging() {
+    }
+
+    /**
+     * Makes the root logger asynchronous and applies the configured level. Calling it again has no effect.
+     */
+    public static synchronized void install() {
+        if (installed) {
+            return;
+        }
+        Logger root = LogManager.getLogManager().getLogger("");
+        Level level = Level.parse(System.getProperty("trivia.log.level", "INFO"));
+        int capacity = Integer.getInteger("trivia.log.buffer", AsyncHandler.DEFAULT_CAPACITY);
+        for (Handler handler : root.getHandlers()) {
+            if (handler instanceof AsyncHandler) {
+                continue;
+            }
+            root.removeHandler(handler);
+            handler.setLevel(level);
+            root.addHandler(new AsyncHandler(handler, capacity));
+        }
+        root.setLevel(level);
+        installed = true;
+    }
+
+    /**
+     * Logs a response payload at FINEST if the logger is enabled for it and the payload is sampled.
+     *
+     * @param log The logger to use
+     * @param source Where the payload came from, e.g. the request URL
+     * @param payload The payload
+     */
+    public static void logPayload(Logger log, String source, String payload) {
+        if (log.isLoggable(Level.FINEST) && PAYLOAD_SAMPLER.sample()) {
+            log.finest("Payload from " + source + ": " + payload);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package trv.triviaapp.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * The application's registry of timers and counters.
+ * <p>
+ * Timers are {@link LatencyHistogram}s and counters are {@link LongAdder}s, both created on first use
+ * and shared by name. Hot paths should look them up once and keep them in a static field. The registry
+ * can be exposed over JMX and dumped to the log periodically.
+ */
+public final class Metrics {
+    private static final Logger LOG = Logger.getLogger(Metrics.class.getName());
+    private static final Map<String, LatencyHistogram> TIMERS = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> COUNTERS = new ConcurrentHashMap<>();
+    private static ScheduledExecutorService dumper;
+    private static boolean registered;
+
+    private Metrics() {
+    }
+
+    /**
+     * Returns the timer with the given name, creating it if needed.
+     *
+     * @param name The timer name, e.g. "api.connect"
+     * @return The timer
+     */
+    public static LatencyHistogram timer(String name) {
+        return TIMERS.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    /**
+     * Returns the counter with the given name, creating it if needed.
+     *
+     * @param name The counter name, e.g. "api.http.200"
+     * @return The counter
+     */
+    public static LongAdder counter(String name) {
+        return COUNTERS.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server. Calling it again has no effect.
+     */
+    public static synchronized void registerMBean() {
+        if (registered) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(new View(), new ObjectName("trv.triviaapp:type=Metrics"));
+            registered = true;
+        } catch (JMException e) {
+            LOG.log(Level.WARNING, "Could not register the metrics MBean", e);
+        }
+    }
+
+    /**
+     * Logs every timer and counter at a fixed rate on a daemon thread. Calling it again has no effect.
+     *
+     * @param period The time between two dumps
+     * @param unit The unit of {@code period}
+     */
+    public static synchronized void startDump(long period, TimeUnit unit) {
+        if (dumper != null) {
+            return;
+        }
+        dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumper.scheduleAtFixedRate(() -> LOG.info(dump()), period, period, unit);
+    }
+
+    /**
+     * Formats every timer and counter, one per line, sorted by name.
+     *
+     * @return The formatted metrics
+     */
+    public static String dump() {
+        StringBuilder out = new StringBuilder("Metrics:");
+        new TreeMap<>(TIMERS).forEach((name, timer) -> out.append("\n  ").append(name).append(": ").append(timer.summary()));
+        new TreeMap<>(COUNTERS).forEach((name, counter) -> out.append("\n  ").append(name).append(": ").append(counter.sum()));
+        return out.toString();
+    }
+
+    /**
+     * The MXBean implementation over the static registry.
+     */
+    private static final class View implements MetricsMXBean {
+
+        @Override
+        public Map<String, Long> getCounters() {
+            Map<String, Long> values = new TreeMap<>();
+            COUNTERS.forEach((name, counter) -> values.put(name, counter.sum()));
+            return values;
+        }
+
+        @Override
+        public Map<String, String> getTimers() {
+            Map<String, String> values = new TreeMap<>();
+            TIMERS.forEach((name, timer) -> values.put(name, timer.summary()));
+            return values;
+        }
+
+        @Override
+        public long percentileNanos(String timer, double percentile) {
+            LatencyHistogram histogram = TIMERS.get(timer);
+            return histogram == null ? -1 : histogram.getPercentile(percentile);
+        }
+
+        @Override
+        public void reset() {
+            TIMERS.values().forEach(LatencyHistogram::reset);
+            COUNTERS.values().forEach(LongAdder::reset);
+        }
+    }
+}
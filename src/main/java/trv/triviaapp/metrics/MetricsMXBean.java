@@ -0,0 +1,37 @@
+package trv.triviaapp.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of the application's {@link Metrics}, registered as {@code trv.triviaapp:type=Metrics}.
+ */
+public interface MetricsMXBean {
+
+    /**
+     * Returns every counter by name.
+     *
+     * @return The current counter values
+     */
+    Map<String, Long> getCounters();
+
+    /**
+     * Returns a one-line summary of every timer by name.
+     *
+     * @return The timer summaries, in microseconds
+     */
+    Map<String, String> getTimers();
+
+    /**
+     * Returns a percentile of a timer.
+     *
+     * @param timer The timer name
+     * @param percentile The percentile, between 0 and 100
+     * @return The percentile in nanoseconds, or -1 if there is no such timer
+     */
+    long percentileNanos(String timer, double percentile);
+
+    /**
+     * Clears all counters and timers.
+     */
+    void reset();
+}
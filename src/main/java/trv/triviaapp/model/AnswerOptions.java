@@ -0,0 +1,43 @@
+package trv.triviaapp.model;
+
+import java.util.List;
+
+/**
+ * The answers of a question in the order they are shown to the player, together with
+ * the slot that holds the correct answer. Answers are submitted by slot, so checking
+ * one is a single integer comparison.
+ *
+ * @param options The answers in display order
+ * @param correctIndex The index of the correct answer within {@code options}
+ */
+public record AnswerOptions(List<String> options, int correctIndex) {
+
+    /**
+     * Returns the number of options.
+     *
+     * @return The option count
+     */
+    public int size() {
+        return options.size();
+    }
+
+    /**
+     * Returns the option shown in the given slot.
+     *
+     * @param index The slot index
+     * @return The answer text
+     */
+    public String get(int index) {
+        return options.get(index);
+    }
+
+    /**
+     * Checks whether the option in the given slot is the correct answer.
+     *
+     * @param index The slot chosen by the player
+     * @return true if the slot holds the correct answer
+     */
+    public boolean isCorrect(int index) {
+        return index == correctIndex;
+    }
+}
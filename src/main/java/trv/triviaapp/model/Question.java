@@ -1,9 +1,10 @@
 package trv.triviaapp.model;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
 import org.apache.commons.lang3.StringEscapeUtils;
 
 /**
@@ -11,38 +12,75 @@ import org.apache.commons.lang3.StringEscapeUtils;
  * correct answer, and a list of incorrect answers. This class provides 
  * methods to manage the question and its answers, including checking if 
  * an answer is correct and shuffling the answers for display.
+ * <p>
+ * Questions are immutable. All text is decoded once when the question is created (see
+ * {@link #fromHtml}), so reading a question never unescapes or allocates.
  */
-public class Question {
-    private String type;
-    private String difficulty;
-    private String category;
-    private String question;
-    private String correct_answer;
-    private String [] incorrect_answers;
+public final class Question {
+    private final String type;
+    private final String difficulty;
+    private final String category;
+    private final String question;
+    private final String correctAnswer;
+    private final String normalizedCorrectAnswer;
+    private final List<String> incorrectAnswers;
+    private final List<String> answers;
 
-    /**
-     * Default constructor for creating an empty Question object.
-     */
-    public Question() {
-    } 
+    private static final List<String> BOOLEAN_OPTIONS = List.of("True", "False");
 
     /**
-     * Constructs a Question with the specified parameters.
+     * Constructs a Question from text that has already been decoded.
      * 
      * @param type The type of the question (e.g., multiple choice, true/false).
      * @param difficulty The difficulty level of the question (e.g., easy, medium, hard).
      * @param category The category of the question (e.g., Science, History).
      * @param question The actual question text.
-     * @param correct_answer The correct answer to the question.
-     * @param incorrect_answers An array of incorrect answers.
+     * @param correctAnswer The correct answer to the question.
+     * @param incorrectAnswers An array of incorrect answers.
      */
-    public Question(String type, String difficulty, String category, String question, String correct_answer, String[] incorrect_answers) {
+    public Question(String type, String difficulty, String category, String question, String correctAnswer, String[] incorrectAnswers) {
         this.type = type;
         this.difficulty = difficulty;
         this.category = category;
         this.question = question;
-        this.correct_answer = correct_answer;
-        this.incorrect_answers = incorrect_answers;
+        this.correctAnswer = correctAnswer;
+        this.normalizedCorrectAnswer = correctAnswer.toLowerCase(Locale.ROOT);
+        this.incorrectAnswers = List.of(incorrectAnswers);
+
+        String[] all = new String[incorrectAnswers.length + 1];
+        all[0] = correctAnswer;
+        System.arraycopy(incorrectAnswers, 0, all, 1, incorrectAnswers.length);
+        this.answers = List.of(all);
+    }
+
+    /**
+     * Creates a Question from text as returned by the Trivia API, decoding HTML entities once.
+     * 
+     * @param type The type of the question.
+     * @param difficulty The difficulty level of the question.
+     * @param category The HTML-encoded category of the question.
+     * @param question The HTML-encoded question text.
+     * @param correctAnswer The HTML-encoded correct answer.
+     * @param incorrectAnswers The HTML-encoded incorrect answers.
+     * @return The decoded question.
+     */
+    public static Question fromHtml(String type, String difficulty, String category, String question, String correctAnswer, String[] incorrectAnswers) {
+        String[] incorrect = new String[incorrectAnswers.length];
+        for (int i = 0; i < incorrectAnswers.length; i++) {
+            incorrect[i] = unescape(incorrectAnswers[i]);
+        }
+        return new Question(type, difficulty, unescape(category),
+                unescape(question), unescape(correctAnswer), incorrect);
+    }
+
+    /**
+     * Decodes HTML entities, skipping the decoder for the many strings that contain none.
+     *
+     * @param html The text as sent by the API, or null
+     * @return The decoded text
+     */
+    private static String unescape(String html) {
+        return html == null || html.indexOf('&') < 0 ? html : StringEscapeUtils.unescapeHtml4(html);
     }
 
     /**
@@ -73,34 +111,39 @@ public class Question {
     }
 
     /**
-     * Returns the question text after unescaping any HTML entities.
+     * Returns the decoded question text.
      * 
-     * @return The unescaped question text.
+     * @return The question text.
      */
     public String getQuestion() {
-        return StringEscapeUtils.unescapeHtml4(question);
+        return question;
     }
 
     /**
-     * Returns the correct answer to the question after unescaping any HTML entities.
+     * Returns the decoded correct answer to the question.
      * 
-     * @return The unescaped correct answer.
+     * @return The correct answer.
      */
     public String getCorrectAnsw() {
-        return StringEscapeUtils.unescapeHtml4(correct_answer);
+        return correctAnswer;
     }
 
     /**
-     * Returns the array of incorrect answers, with each answer unescaped from HTML entities.
+     * Returns the correct answer in lower case, for case-insensitive comparisons.
      * 
-     * @return An array of unescaped incorrect answers.
+     * @return The lower-case correct answer.
      */
-    public String[] getIncorrectAnsw() {
-        for(int i=0; i < incorrect_answers.length; i++) {
-            incorrect_answers[i] = StringEscapeUtils.unescapeHtml4(incorrect_answers[i]);
-        }
-        
-        return incorrect_answers;
+    public String getNormalizedCorrectAnsw() {
+        return normalizedCorrectAnswer;
+    }
+
+    /**
+     * Returns the decoded incorrect answers.
+     * 
+     * @return An unmodifiable list of incorrect answers.
+     */
+    public List<String> getIncorrectAnsw() {
+        return incorrectAnswers;
     }
 
     /**
@@ -110,7 +153,7 @@ public class Question {
      */
     @Override
     public String toString() {
-        return "Question{" + "type=" + type + ", difficulty=" + difficulty + ", category=" + category + ", question=" + question + ", correctAnsw=" + correct_answer + ", incorrectAnsw=" + incorrect_answers + '}';
+        return "Question{" + "type=" + type + ", difficulty=" + difficulty + ", category=" + category + ", question=" + question + ", correctAnsw=" + correctAnswer + ", incorrectAnsw=" + incorrectAnswers + '}';
     }
     
     /**
@@ -123,15 +166,44 @@ public class Question {
     }
     
     /**
-     * Checks if the given answer matches the correct answer.
+     * Checks if the given answer matches the correct answer, ignoring case.
      * 
      * @param userAnswer The answer provided by the user.
      * @return true if the answer is correct, false otherwise.
      */
     public boolean checkAnswer(String userAnswer) {
-        return getCorrectAnsw().equalsIgnoreCase(userAnswer);
+        return userAnswer != null && normalizedCorrectAnswer.equals(userAnswer.toLowerCase(Locale.ROOT));
     }
     
+    /**
+     * Arranges the answers for display and records which slot holds the correct one.
+     * Multiple choice answers are shuffled; true/false answers are always shown as "True", "False".
+     * 
+     * @return The answers in display order with the slot of the correct answer.
+     */
+    public AnswerOptions shuffledOptions() {
+        if (!isMultipleChoice()) {
+            return new AnswerOptions(BOOLEAN_OPTIONS, correctAnswer.equalsIgnoreCase("True") ? 0 : 1);
+        }
+
+        // Fisher-Yates over a copy, following the correct answer (which starts in slot 0) as it moves
+        String[] options = answers.toArray(new String[0]);
+        int correctIndex = 0;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = options.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            String swap = options[i];
+            options[i] = options[j];
+            options[j] = swap;
+            if (correctIndex == i) {
+                correctIndex = j;
+            } else if (correctIndex == j) {
+                correctIndex = i;
+            }
+        }
+        return new AnswerOptions(List.of(options), correctIndex);
+    }
+
     /**
      * Shuffles the answers (both correct and incorrect) and returns them as a list.
      * This method ensures the order of the answers is random for each game.
@@ -139,11 +211,7 @@ public class Question {
      * @return A shuffled list of answers, including the correct and incorrect ones.
      */
     public List<String> shuffledAnswers() {
-        List<String> options = new ArrayList<>();
-        options.add(this.getCorrectAnsw());
-        String[] incorrect = this.getIncorrectAnsw();
-        
-        options.addAll(Arrays.asList(incorrect));
+        List<String> options = new ArrayList<>(answers);
         
         Collections.shuffle(options);
         
@@ -11,6 +11,8 @@ public class QuestionSet {
     private int response_code;
     private List<Question> results;
     private int questionIndex = 0;
+    private AnswerOptions currentOptions;
+    private int optionsIndex = -1;
 
     /**
      * Default constructor for creating a QuestionSet object. Initializes the list of questions.
@@ -19,6 +21,17 @@ public class QuestionSet {
         this.results = new ArrayList<>();
     }
 
+    /**
+     * Creates a QuestionSet with the given response code and questions.
+     * 
+     * @param responseCode The response code returned by the API
+     * @param results The questions in the set
+     */
+    public QuestionSet(int responseCode, List<Question> results) {
+        this.response_code = responseCode;
+        this.results = results;
+    }
+
     /**
      * Returns the response code associated with the question set.
      * 
@@ -85,6 +98,24 @@ public class QuestionSet {
         return null; 
     }
     
+    /**
+     * Returns the answers of the current question in display order. The order is chosen once per
+     * question and stays the same until the set moves to another question.
+     * 
+     * @return The options of the current question, or null if there are no more questions.
+     */
+    public AnswerOptions getCurrentOptions() {
+        Question question = getCurrentQuestion();
+        if (question == null) {
+            return null;
+        }
+        if (optionsIndex != questionIndex) {
+            currentOptions = question.shuffledOptions();
+            optionsIndex = questionIndex;
+        }
+        return currentOptions;
+    }
+
     /**
      * Advances to the next question in the set.
      * 
@@ -95,6 +126,21 @@ public class QuestionSet {
         return questionIndex < results.size();
     }
     
+    /**
+     * Checks if the option in the given slot of {@link #getCurrentOptions()} is the correct answer.
+     * 
+     * @param optionIndex The slot chosen by the player.
+     * @return true if the answer is correct, false otherwise.
+     */
+    public boolean answer(int optionIndex) {
+        AnswerOptions options = getCurrentOptions();
+        if (options != null && options.isCorrect(optionIndex)) {
+            // Scores are kept by GameSession and recorded in the ScoreLog
+            return true;
+        }
+        return false;
+    }
+
     /**
      * Checks if the provided answer is correct for the current question.
      * 
@@ -104,7 +150,7 @@ public class QuestionSet {
     public boolean answer(String answer) {
         Question question = getCurrentQuestion();
         if (question != null && question.checkAnswer(answer)) {
-            // TODO: Add a score
+            // Scores are kept by GameSession and recorded in the ScoreLog
             return true;
         }
         return false;
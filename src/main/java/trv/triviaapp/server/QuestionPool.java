@@ -0,0 +1,131 @@
+package trv.triviaapp.server;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import trv.triviaapp.api.QuestionSource;
+import trv.triviaapp.model.Question;
+import trv.triviaapp.model.QuestionSet;
+import trv.triviaapp.store.QuestionBank;
+
+/**
+ * A pool of questions shared by every session of the server.
+ * <p>
+ * The questions are held in a {@link QuestionBank}, so games can be drawn by category, difficulty
+ * and type. Reads work on an immutable snapshot, so drawing a game never blocks; adding questions
+ * publishes a new snapshot. The pool grows in the background by fetching from its source at most once per
+ * refresh interval, which keeps the server within the Trivia API's rate limit however many games start.
+ */
+public class QuestionPool {
+    private static final Logger LOG = Logger.getLogger(QuestionPool.class.getName());
+
+    private final QuestionSource source;
+    private final Executor executor;
+    private final long refreshIntervalNanos;
+    private final QuestionBank bank = new QuestionBank();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile long lastRefresh;
+
+    /**
+     * Creates an empty pool.
+     *
+     * @param source The source used to grow the pool
+     * @param executor The executor that runs background refreshes
+     * @param refreshInterval The minimum time between two fetches from the source
+     * @param unit The unit of {@code refreshInterval}
+     */
+    public QuestionPool(QuestionSource source, Executor executor, long refreshInterval, TimeUnit unit) {
+        this.source = source;
+        this.executor = executor;
+        this.refreshIntervalNanos = unit.toNanos(refreshInterval);
+        this.lastRefresh = System.nanoTime() - refreshIntervalNanos;
+    }
+
+    /**
+     * Adds questions to the pool, ignoring those it already holds.
+     *
+     * @param added The questions to add
+     * @return The number of new questions
+     */
+    public int add(Collection<Question> added) {
+        return bank.add(added);
+    }
+
+    /**
+     * Fetches from the source on the calling thread and adds the result to the pool.
+     *
+     * @throws IOException if the source fails
+     */
+    public void refreshNow() throws IOException {
+        lastRefresh = System.nanoTime();
+        QuestionSet fetched = source.fetch();
+        if (fetched != null && fetched.getResponseCode() == 0) {
+            add(fetched.getQuestions());
+        }
+    }
+
+    /**
+     * Starts a background refresh if the refresh interval has passed and none is running.
+     */
+    private void maybeRefresh() {
+        if (System.nanoTime() - lastRefresh < refreshIntervalNanos || !refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                refreshNow();
+            } catch (IOException | RuntimeException e) {
+                LOG.log(Level.WARNING, "Refreshing the question pool failed", e);
+            } finally {
+                refreshing.set(false);
+            }
+        });
+    }
+
+    /**
+     * Picks distinct random questions for a new game.
+     *
+     * @param count The number of questions wanted
+     * @return Up to {@code count} questions, fewer if the pool is smaller
+     */
+    public List<Question> draw(int count) {
+        return draw(null, null, null, count);
+    }
+
+    /**
+     * Picks distinct random questions with the given attributes for a new game.
+     *
+     * @param category The category, or null for any
+     * @param difficulty The difficulty, or null for any
+     * @param type The type, or null for any
+     * @param count The number of questions wanted
+     * @return Up to {@code count} matching questions, fewer if not enough match
+     */
+    public List<Question> draw(String category, String difficulty, String type, int count) {
+        maybeRefresh();
+        return bank.find(category, difficulty, type, count);
+    }
+
+    /**
+     * Returns the bank holding the pool's questions, e.g. to list its categories.
+     *
+     * @return The question bank
+     */
+    public QuestionBank getBank() {
+        return bank;
+    }
+
+    /**
+     * Returns the number of questions in the pool.
+     *
+     * @return The pool size
+     */
+    public int size() {
+        return bank.size();
+    }
+}
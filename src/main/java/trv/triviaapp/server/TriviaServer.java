@@ -0,0 +1,672 @@
+package trv.triviaapp.server;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import trv.triviaapp.api.TriviaApi;
+import trv.triviaapp.engine.AnswerRecord;
+import trv.triviaapp.engine.GameListener;
+import trv.triviaapp.engine.GameSession;
+import trv.triviaapp.model.AnswerOptions;
+import trv.triviaapp.model.Question;
+import trv.triviaapp.store.GameResult;
+import trv.triviaapp.store.Leaderboard;
+import trv.triviaapp.store.PlayerStats;
+import trv.triviaapp.store.QuestionBank;
+import trv.triviaapp.store.QuestionStore;
+import trv.triviaapp.store.ScoreLog;
+import trv.triviaapp.store.SeenQuestions;
+import trv.triviaapp.store.StoreBackedSource;
+
+/**
+ * An embedded HTTP server that hosts many trivia games in one JVM.
+ * <p>
+ * Every request runs on its own virtual thread. All sessions draw their questions from one shared
+ * {@link QuestionPool}. The API is JSON over HTTP:
+ * <ul>
+ *   <li>{@code POST /games[?player=NAME&category=C&difficulty=D&type=T&seconds=S]} starts a game and
+ *       returns its id; the optional filters pick the questions, with a player name, questions that player
+ *       has already been asked are avoided, and with seconds, every question has that time limit</li>
+ *   <li>{@code GET /games/stats?player=NAME} returns the accuracy and speed of a player per category</li>
+ *   <li>{@code GET /games/categories} lists the categories, difficulties and types available</li>
+ *   <li>{@code GET /games/leaderboard[?limit=K&player=NAME]} returns the K best players (10 by default)
+ *       and, with a player name, that player's best game and rank</li>
+ *   <li>{@code GET /games/{id}/question} returns the current question and its options</li>
+ *   <li>{@code POST /games/{id}/answer?option=N} answers the current question and moves on</li>
+ *   <li>{@code DELETE /games/{id}} ends a game</li>
+ * </ul>
+ * Sessions that see no requests for {@link #SESSION_TTL_MINUTES} minutes are discarded.
+ * Finished games of named players are recorded in the {@link ScoreLog}, when the server keeps one,
+ * and their answers are added to the {@link PlayerStats}, which are saved every minute.
+ * <p>
+ * Time limits are checked whenever a session is used rather than scheduled, so timed games cost
+ * nothing between requests: a question whose time ran out is recorded as missed and the game moves
+ * on when the player next asks for the question, and a late answer is recorded as timed out.
+ */
+public class TriviaServer {
+    private static final Logger LOG = Logger.getLogger(TriviaServer.class.getName());
+    /** Port used when none is given on the command line. */
+    public static final int DEFAULT_PORT = 8080;
+    /** Number of questions in a game. */
+    public static final int GAME_SIZE = 10;
+    /** Idle time after which a session is discarded. */
+    public static final long SESSION_TTL_MINUTES = 10;
+    /** Number of candidates drawn per question when filtering out seen questions. */
+    private static final int CANDIDATES_PER_QUESTION = 4;
+
+    private static final Gson GSON = new GsonBuilder().disableHtmlEscaping().create();
+
+    private final HttpServer http;
+    private final ExecutorService requestExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "session-reaper");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final QuestionPool pool;
+    private final Map<String, HostedSession> sessions = new ConcurrentHashMap<>();
+    private final SeenQuestions seen;
+    private final ScoreLog scores;
+    private final PlayerStats stats;
+
+    /**
+     * A game session together with the time it was last used.
+     */
+    private static final class HostedSession {
+        final GameSession game;
+        /**
+         * Makes the steps of one request atomic. It is not the session's own lock, so the session
+         * notifies its listeners, which write scores and stats, without holding it.
+         */
+        final Object lock = new Object();
+        volatile long lastAccess = System.nanoTime();
+
+        HostedSession(GameSession game) {
+            this.game = game;
+        }
+    }
+
+    /**
+     * Creates a server bound to the given port. Call {@link #start()} to accept requests.
+     *
+     * @param port The port to listen on, or 0 for any free port
+     * @param pool The question pool shared by all sessions
+     * @throws IOException if the port cannot be bound
+     */
+    public TriviaServer(int port, QuestionPool pool) throws IOException {
+        this(port, pool, null);
+    }
+
+    /**
+     * Creates a server bound to the given port that avoids repeating questions to named players.
+     * Call {@link #start()} to accept requests.
+     *
+     * @param port The port to listen on, or 0 for any free port
+     * @param pool The question pool shared by all sessions
+     * @param seen The seen-question registry, or null to disable filtering
+     * @throws IOException if the port cannot be bound
+     */
+    public TriviaServer(int port, QuestionPool pool, SeenQuestions seen) throws IOException {
+        this(port, pool, seen, null, null);
+    }
+
+    /**
+     * Creates a server bound to the given port that avoids repeating questions to named players and
+     * records their finished games. Call {@link #start()} to accept requests.
+     *
+     * @param port The port to listen on, or 0 for any free port
+     * @param pool The question pool shared by all sessions
+     * @param seen The seen-question registry, or null to disable filtering
+     * @param scores The score log, or null to keep no scores
+     * @throws IOException if the port cannot be bound
+     */
+    public TriviaServer(int port, QuestionPool pool, SeenQuestions seen, ScoreLog scores) throws IOException {
+        this(port, pool, seen, scores, null);
+    }
+
+    /**
+     * Creates a server bound to the given port that avoids repeating questions to named players and
+     * records their finished games and answers. Call {@link #start()} to accept requests.
+     *
+     * @param port The port to listen on, or 0 for any free port
+     * @param pool The question pool shared by all sessions
+     * @param seen The seen-question registry, or null to disable filtering
+     * @param scores The score log, or null to keep no scores
+     * @param stats The player stats, or null to keep no stats
+     * @throws IOException if the port cannot be bound
+     */
+    public TriviaServer(int port, QuestionPool pool, SeenQuestions seen, ScoreLog scores, PlayerStats stats)
+            throws IOException {
+        this.pool = pool;
+        this.seen = seen;
+        this.scores = scores;
+        this.stats = stats;
+        // Without TCP_NODELAY, small responses wait on delayed ACKs for tens of milliseconds
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        this.http = HttpServer.create(new InetSocketAddress(port), 1024);
+        http.setExecutor(requestExecutor);
+        http.createContext("/games", this::handle);
+    }
+
+    /**
+     * Builds a server backed by the Trivia API and the local question store, and starts it.
+     *
+     * @param port The port to listen on
+     * @return The running server
+     * @throws IOException if the port cannot be bound
+     */
+    public static TriviaServer launch(int port) throws IOException {
+        QuestionStore store = null;
+        try {
+            store = new QuestionStore(QuestionStore.defaultPath());
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Question store unavailable", e);
+        }
+        TriviaApi api = new TriviaApi();
+        StoreBackedSource source = new StoreBackedSource(api::fetchQuestionSet, store, Boolean.getBoolean("trivia.offline"));
+        QuestionPool pool = new QuestionPool(source, Executors.newVirtualThreadPerTaskExecutor(), 5, TimeUnit.SECONDS);
+        if (store != null) {
+            pool.add(store.snapshot());
+        }
+        try {
+            pool.refreshNow();
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Could not fetch questions at startup", e);
+        }
+
+        SeenQuestions seen = null;
+        try {
+            seen = new SeenQuestions(SeenQuestions.defaultPath());
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Seen questions unavailable", e);
+        }
+
+        ScoreLog scores = null;
+        try {
+            scores = new ScoreLog(ScoreLog.defaultPath(), new Leaderboard());
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Score log unavailable", e);
+        }
+
+        PlayerStats stats = null;
+        try {
+            stats = new PlayerStats(PlayerStats.defaultPath());
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Player stats unavailable", e);
+        }
+
+        TriviaServer server = new TriviaServer(port, pool, seen, scores, stats);
+        server.start();
+        LOG.log(Level.INFO, "Trivia server listening on port {0} with {1} questions",
+                new Object[]{server.getPort(), pool.size()});
+        return server;
+    }
+
+    /**
+     * Starts accepting requests, the idle session reaper and the periodic save of seen questions
+     * and player stats.
+     */
+    public void start() {
+        http.start();
+        reaper.scheduleAtFixedRate(this::evictIdleSessions, 1, 1, TimeUnit.MINUTES);
+        if (seen != null) {
+            reaper.scheduleWithFixedDelay(this::saveSeen, 1, 1, TimeUnit.MINUTES);
+        }
+        if (stats != null) {
+            reaper.scheduleWithFixedDelay(this::saveStats, 1, 1, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * Stops the server, waiting up to the given number of seconds for requests in progress,
+     * saves the seen questions and player stats and closes the score log.
+     *
+     * @param delaySeconds The maximum time to wait for requests in progress
+     */
+    public void stop(int delaySeconds) {
+        http.stop(delaySeconds);
+        reaper.shutdownNow();
+        requestExecutor.shutdown();
+        if (seen != null) {
+            saveSeen();
+        }
+        if (stats != null) {
+            saveStats();
+        }
+        if (scores != null) {
+            try {
+                scores.close();
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Could not close the score log", e);
+            }
+        }
+    }
+
+    /**
+     * Saves the seen questions. Failures are reported but not fatal.
+     */
+    private void saveSeen() {
+        try {
+            seen.save();
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Could not save seen questions", e);
+        }
+    }
+
+    /**
+     * Saves the player stats. Failures are reported but not fatal.
+     */
+    private void saveStats() {
+        try {
+            stats.save();
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Could not save player stats", e);
+        }
+    }
+
+    /**
+     * Returns the port the server is bound to.
+     *
+     * @return The local port
+     */
+    public int getPort() {
+        return http.getAddress().getPort();
+    }
+
+    /**
+     * Returns the number of sessions currently hosted.
+     *
+     * @return The session count
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Discards sessions that have been idle for longer than the session TTL.
+     */
+    private void evictIdleSessions() {
+        long cutoff = System.nanoTime() - TimeUnit.MINUTES.toNanos(SESSION_TTL_MINUTES);
+        sessions.values().removeIf(hosted -> hosted.lastAccess < cutoff);
+    }
+
+    /**
+     * Handles a request under {@code /games} and always closes the exchange.
+     *
+     * @param exchange The HTTP exchange
+     * @throws IOException if the response cannot be written
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            route(exchange);
+        } catch (RuntimeException e) {
+            LOG.log(Level.WARNING, "Request failed", e);
+        }
+    }
+
+    /**
+     * Dispatches a request to the matching endpoint.
+     *
+     * @param exchange The HTTP exchange
+     * @throws IOException if the response cannot be written
+     */
+    private void route(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            String[] path = exchange.getRequestURI().getPath().split("/");
+            // path[0] is empty, path[1] is "games"
+            if (path.length == 2) {
+                if (method.equals("POST")) {
+                    createGame(exchange);
+                } else {
+                    send(exchange, 405, error("Use POST to start a game"));
+                }
+                return;
+            }
+            if (path.length == 3 && path[2].equals("categories") && method.equals("GET")) {
+                listCategories(exchange);
+                return;
+            }
+            if (path.length == 3 && path[2].equals("leaderboard") && method.equals("GET")) {
+                getLeaderboard(exchange);
+                return;
+            }
+            if (path.length == 3 && path[2].equals("stats") && method.equals("GET")) {
+                getStats(exchange);
+                return;
+            }
+
+            HostedSession hosted = sessions.get(path[2]);
+            if (hosted == null) {
+                send(exchange, 404, error("Unknown game"));
+                return;
+            }
+            hosted.lastAccess = System.nanoTime();
+
+            String action = path.length > 3 ? path[3] : "";
+            switch (method + " " + action) {
+                case "GET question" -> getQuestion(exchange, hosted);
+                case "POST answer" -> submitAnswer(exchange, hosted);
+                case "DELETE " -> {
+                    sessions.remove(path[2]);
+                    send(exchange, 204, null);
+                }
+                default -> send(exchange, 404, error("Unknown action"));
+            }
+        } catch (RuntimeException e) {
+            LOG.log(Level.WARNING, "Request failed", e);
+            send(exchange, 500, error("Internal error"));
+        }
+    }
+
+    /**
+     * Starts a new session with questions drawn from the shared pool. When the request names a
+     * player, questions new to that player are preferred.
+     */
+    private void createGame(HttpExchange exchange) throws IOException {
+        URI uri = exchange.getRequestURI();
+        String player = queryParam(uri, "player");
+        String category = queryParam(uri, "category");
+        String difficulty = queryParam(uri, "difficulty");
+        String type = queryParam(uri, "type");
+        int seconds = Math.max(0, queryInt(uri, "seconds"));
+        List<Question> questions;
+        if (seen != null && player != null && !player.isEmpty()) {
+            questions = seen.select(player,
+                    pool.draw(category, difficulty, type, GAME_SIZE * CANDIDATES_PER_QUESTION), GAME_SIZE);
+        } else {
+            questions = pool.draw(category, difficulty, type, GAME_SIZE);
+        }
+        if (questions.isEmpty()) {
+            boolean filtered = category != null || difficulty != null || type != null;
+            if (filtered && pool.size() > 0) {
+                send(exchange, 404, error("No questions match the requested category, difficulty and type"));
+            } else {
+                send(exchange, 503, error("No questions available yet"));
+            }
+            return;
+        }
+        GameSession game = new GameSession(questions, TimeUnit.SECONDS.toNanos(seconds), null);
+        if (stats != null && player != null && !player.isEmpty()) {
+            game.addListener(stats.listenerFor(player));
+        }
+        if (scores != null && player != null && !player.isEmpty()) {
+            game.addListener(new GameListener() {
+                @Override
+                public void onGameFinished(GameSession session) {
+                    scores.record(new GameResult(player, session.getPoints(), session.getScore(), session.getSize(),
+                            System.currentTimeMillis()));
+                }
+            });
+        }
+        game.start();
+
+        String id;
+        do {
+            id = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        } while (sessions.putIfAbsent(id, new HostedSession(game)) != null);
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("id", id);
+        body.put("size", game.getSize());
+        body.put("seconds", seconds);
+        send(exchange, 201, body);
+    }
+
+    /**
+     * Lists the categories, difficulties and types that games can be filtered by, with question counts.
+     */
+    private void listCategories(HttpExchange exchange) throws IOException {
+        QuestionBank bank = pool.getBank();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("size", bank.size());
+        body.put("categories", counts(bank.getCategories(), name -> bank.count(name, null, null)));
+        body.put("difficulties", counts(bank.getDifficulties(), name -> bank.count(null, name, null)));
+        body.put("types", counts(bank.getTypes(), name -> bank.count(null, null, name)));
+        send(exchange, 200, body);
+    }
+
+    /**
+     * Returns the best players and, when the request names one, that player's best game and rank.
+     */
+    private void getLeaderboard(HttpExchange exchange) throws IOException {
+        if (scores == null) {
+            send(exchange, 404, error("This server keeps no scores"));
+            return;
+        }
+        URI uri = exchange.getRequestURI();
+        int limit = queryInt(uri, "limit");
+        String player = queryParam(uri, "player");
+        Leaderboard leaderboard = scores.getLeaderboard();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("players", leaderboard.size());
+        List<Map<String, Object>> top = new ArrayList<>();
+        for (GameResult result : leaderboard.top(limit < 0 ? 10 : Math.min(limit, 1000))) {
+            top.add(result(result));
+        }
+        body.put("top", top);
+        if (player != null) {
+            GameResult best = leaderboard.best(player);
+            if (best != null) {
+                Map<String, Object> entry = result(best);
+                entry.put("rank", leaderboard.rank(player));
+                body.put("player", entry);
+            }
+        }
+        send(exchange, 200, body);
+    }
+
+    /**
+     * Returns the accuracy, mean think time and points of a player for every category they played.
+     */
+    private void getStats(HttpExchange exchange) throws IOException {
+        String player = queryParam(exchange.getRequestURI(), "player");
+        if (stats == null) {
+            send(exchange, 404, error("This server keeps no stats"));
+            return;
+        }
+        if (player == null || player.isEmpty()) {
+            send(exchange, 400, error("player is required"));
+            return;
+        }
+        Map<String, Object> categories = new LinkedHashMap<>();
+        for (Map.Entry<String, PlayerStats.Stats> entry : stats.byCategory(player).entrySet()) {
+            PlayerStats.Stats category = entry.getValue();
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("answered", category.answered());
+            values.put("correct", category.correct());
+            values.put("timedOut", category.timedOut());
+            values.put("accuracy", category.accuracy());
+            values.put("meanThinkMillis", TimeUnit.NANOSECONDS.toMillis(category.meanThinkNanos()));
+            values.put("points", category.points());
+            categories.put(entry.getKey(), values);
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("player", player);
+        body.put("categories", categories);
+        send(exchange, 200, body);
+    }
+
+    private static Map<String, Object> result(GameResult result) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("player", result.player());
+        entry.put("points", result.points());
+        entry.put("score", result.score());
+        entry.put("questions", result.questions());
+        entry.put("time", result.time());
+        return entry;
+    }
+
+    private static Map<String, Integer> counts(Collection<String> names, ToIntFunction<String> count) {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (String name : names) {
+            counts.put(name, count.applyAsInt(name));
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the current question of a session, or its final score once it is finished.
+     * A question whose time limit ran out is recorded as missed first, and reported as "missed".
+     */
+    private void getQuestion(HttpExchange exchange, HostedSession hosted) throws IOException {
+        GameSession game = hosted.game;
+        Map<String, Object> body = new LinkedHashMap<>();
+        synchronized (hosted.lock) {
+            if (game.checkTimeout()) {
+                game.advance();
+                body.put("missed", game.getCursor() - 1);
+            }
+            Question question = game.getCurrentQuestion();
+            if (question == null) {
+                body.put("finished", true);
+                body.put("score", game.getScore());
+                body.put("points", game.getPoints());
+                body.put("size", game.getSize());
+            } else {
+                AnswerOptions options = game.getCurrentOptions();
+                body.put("finished", false);
+                body.put("index", game.getCursor());
+                body.put("size", game.getSize());
+                body.put("type", question.getType());
+                body.put("category", question.getCategory());
+                body.put("difficulty", question.getDifficulty());
+                body.put("question", question.getQuestion());
+                body.put("options", options.options());
+                long timeLeft = game.getTimeLeftNanos();
+                if (timeLeft >= 0) {
+                    body.put("timeLeftMillis", TimeUnit.NANOSECONDS.toMillis(timeLeft));
+                }
+            }
+        }
+        send(exchange, 200, body);
+    }
+
+    /**
+     * Answers the current question of a session with the option given in the query string.
+     */
+    private void submitAnswer(HttpExchange exchange, HostedSession hosted) throws IOException {
+        GameSession game = hosted.game;
+        int option = queryInt(exchange.getRequestURI(), "option");
+        Map<String, Object> body;
+        int status;
+        synchronized (hosted.lock) {
+            AnswerOptions options = game.getCurrentOptions();
+            if (options == null || game.isAnswered()) {
+                status = 409;
+                body = error("There is no open question");
+            } else if (option < 0 || option >= options.size()) {
+                status = 400;
+                body = error("option must be between 0 and " + (options.size() - 1));
+            } else {
+                status = 200;
+                body = answer(game, option, options);
+            }
+        }
+        send(exchange, status, body);
+    }
+
+    /**
+     * Answers the current question and moves on. Must be called while holding the session's request lock.
+     *
+     * @return The response body describing the answer
+     */
+    private static Map<String, Object> answer(GameSession game, int option, AnswerOptions options) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        AnswerRecord answer = game.submitAnswer(option);
+        game.advance();
+        body.put("correct", answer.correct());
+        body.put("timedOut", answer.timedOut());
+        body.put("thinkMillis", TimeUnit.NANOSECONDS.toMillis(answer.thinkNanos()));
+        body.put("points", answer.points());
+        body.put("totalPoints", game.getPoints());
+        body.put("correctOption", options.correctIndex());
+        body.put("correctAnswer", answer.question().getCorrectAnsw());
+        body.put("score", game.getScore());
+        body.put("finished", game.isFinished());
+        return body;
+    }
+
+    /**
+     * Reads an integer query parameter.
+     *
+     * @return The parameter value, or -1 if it is missing or not a number
+     */
+    private static int queryInt(URI uri, String name) {
+        String value = queryParam(uri, name);
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Reads a query parameter.
+     *
+     * @return The decoded parameter value, or null if it is missing
+     */
+    private static String queryParam(URI uri, String name) {
+        String query = uri.getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private static Map<String, Object> error(String message) {
+        return Map.of("error", message);
+    }
+
+    /**
+     * Writes a JSON response.
+     *
+     * @param status The HTTP status code
+     * @param body The object to serialize, or null for an empty body
+     */
+    private static void send(HttpExchange exchange, int status, Object body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] bytes = GSON.toJson(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
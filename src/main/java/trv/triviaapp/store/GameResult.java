@@ -0,0 +1,31 @@
+package trv.triviaapp.store;
+
+import java.util.Comparator;
+
+/**
+ * The outcome of one finished game, as kept in the {@link ScoreLog} and ranked by the {@link Leaderboard}.
+ *
+ * @param player The player name
+ * @param points The points scored, weighted by speed
+ * @param score The number of correct answers
+ * @param questions The number of questions in the game
+ * @param time When the game finished, in milliseconds since the epoch
+ */
+public record GameResult(String player, int points, int score, int questions, long time) {
+
+    /** Leaderboard order: most points first, then whoever got there first, then by name. */
+    public static final Comparator<GameResult> RANKING = Comparator.comparingInt(GameResult::points).reversed()
+            .thenComparingLong(GameResult::time)
+            .thenComparing(GameResult::player);
+
+    /**
+     * Creates a result.
+     *
+     * @throws NullPointerException if the player is null
+     */
+    public GameResult {
+        if (player == null) {
+            throw new NullPointerException("player");
+        }
+    }
+}
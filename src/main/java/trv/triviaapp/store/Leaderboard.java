@@ -0,0 +1,164 @@
+package trv.triviaapp.store;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * An in-memory high score table holding the best game of every player.
+ * <p>
+ * Results can be recorded from any number of threads without locks: the best result of each player is
+ * swapped in with compare-and-set, the results are kept ordered in a skip list, which answers top-K
+ * queries in O(log n + k), and a Fenwick tree of atomic counters over the point values counts the
+ * players at or below each score, which answers rank queries in O(log maxPoints). Queries running
+ * alongside an update may briefly see the player's previous best as well as the new one.
+ * Points above {@code maxPoints} are ranked as {@code maxPoints}.
+ */
+public class Leaderboard {
+    /** Highest point value ranked exactly by default, well above a game of 100 questions. */
+    public static final int DEFAULT_MAX_POINTS = (1 << 17) - 1;
+
+    private final ConcurrentHashMap<String, GameResult> best = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<GameResult> ranking = new ConcurrentSkipListSet<>(GameResult.RANKING);
+    /** Fenwick tree over point values, 1-based: bucket {@code p + 1} counts the players whose best is p points. */
+    private final AtomicLongArray tree;
+    private final int maxPoints;
+
+    /**
+     * Creates an empty leaderboard ranking up to {@link #DEFAULT_MAX_POINTS} points exactly.
+     */
+    public Leaderboard() {
+        this(DEFAULT_MAX_POINTS);
+    }
+
+    /**
+     * Creates an empty leaderboard.
+     *
+     * @param maxPoints The highest point value ranked exactly; it sizes the rank index
+     */
+    public Leaderboard(int maxPoints) {
+        if (maxPoints < 1) {
+            throw new IllegalArgumentException("maxPoints must be positive");
+        }
+        this.maxPoints = maxPoints;
+        this.tree = new AtomicLongArray(maxPoints + 2);
+    }
+
+    /**
+     * Records a finished game. It only changes the leaderboard if it beats the player's best game.
+     *
+     * @param result The game result
+     * @return true if the result is the player's new best
+     */
+    public boolean record(GameResult result) {
+        String player = result.player();
+        while (true) {
+            GameResult previous = best.get(player);
+            if (previous != null && GameResult.RANKING.compare(result, previous) >= 0) {
+                return false;
+            }
+            boolean swapped = previous == null
+                    ? best.putIfAbsent(player, result) == null
+                    : best.replace(player, previous, result);
+            if (swapped) {
+                ranking.add(result);
+                // A faster update may already have replaced this result and tried to remove it
+                if (best.get(player) != result) {
+                    ranking.remove(result);
+                }
+                add(bucket(result.points()), 1);
+                if (previous != null) {
+                    ranking.remove(previous);
+                    add(bucket(previous.points()), -1);
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns the best results, highest first.
+     *
+     * @param count The maximum number of results
+     * @return Up to count results, one per player
+     */
+    public List<GameResult> top(int count) {
+        List<GameResult> top = new ArrayList<>(Math.min(count, 64));
+        for (GameResult result : ranking) {
+            if (top.size() >= count) {
+                break;
+            }
+            // Skip a previous best that a concurrent update has not removed yet
+            if (best.get(result.player()) == result) {
+                top.add(result);
+            }
+        }
+        return Collections.unmodifiableList(top);
+    }
+
+    /**
+     * Returns the position of a player on the leaderboard, where players with the same points share a rank.
+     *
+     * @param player The player name
+     * @return The 1-based rank, or 0 if the player has no recorded game
+     */
+    public int rank(String player) {
+        GameResult result = best.get(player);
+        if (result == null) {
+            return 0;
+        }
+        return (int) (1 + sum(maxPoints + 1) - sum(bucket(result.points())));
+    }
+
+    /**
+     * Returns the best game of a player.
+     *
+     * @param player The player name
+     * @return The best result, or null if the player has no recorded game
+     */
+    public GameResult best(String player) {
+        return best.get(player);
+    }
+
+    /**
+     * Returns the best game of every player, highest first.
+     *
+     * @return A weakly consistent view of the results
+     */
+    public Iterable<GameResult> results() {
+        return Collections.unmodifiableSet(ranking);
+    }
+
+    /**
+     * Returns the number of players on the leaderboard.
+     *
+     * @return The player count
+     */
+    public int size() {
+        return best.size();
+    }
+
+    private int bucket(int points) {
+        return Math.min(Math.max(points, 0), maxPoints) + 1;
+    }
+
+    private void add(int index, long delta) {
+        for (int i = index; i < tree.length(); i += i & -i) {
+            tree.getAndAdd(i, delta);
+        }
+    }
+
+    /**
+     * Counts the players in buckets 1 to index.
+     */
+    private long sum(int index) {
+        long sum = 0;
+        for (int i = index; i > 0; i -= i & -i) {
+            sum += tree.get(i);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,212 @@
+package trv.triviaapp.store;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * A set of primitive {@code long}s using open addressing with linear probing.
+ * <p>
+ * Values are stored directly in a {@code long[]}, so the set needs about 11 to 22 bytes per
+ * entry and no objects per entry, which keeps millions of entries cheap to hold and to scan. Slots
+ * are picked with Fibonacci hashing, so keys that are not well distributed are spread as well.
+ * There is no removal, which lets 0 mark a free slot; the value 0 itself is tracked separately.
+ * The set is not thread-safe.
+ */
+public final class LongHashSet {
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+    private static final float LOAD_FACTOR = 0.7f;
+
+    private long[] table;
+    private int shift;
+    private int size;
+    private int resizeAt;
+    private boolean hasZero;
+
+    /**
+     * Creates an empty set.
+     */
+    public LongHashSet() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty set that holds the given number of values without growing.
+     *
+     * @param expected The expected number of values
+     */
+    public LongHashSet(int expected) {
+        allocate(capacityFor(expected));
+    }
+
+    /**
+     * Adds a value to the set.
+     *
+     * @param value The value to add
+     * @return true if the value was not in the set yet
+     */
+    public boolean add(long value) {
+        if (value == 0) {
+            if (hasZero) {
+                return false;
+            }
+            hasZero = true;
+            size++;
+            return true;
+        }
+        int mask = table.length - 1;
+        int slot = slot(value);
+        while (table[slot] != 0) {
+            if (table[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = value;
+        if (++size > resizeAt) {
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a value is in the set.
+     *
+     * @param value The value to look for
+     * @return true if the set contains the value
+     */
+    public boolean contains(long value) {
+        if (value == 0) {
+            return hasZero;
+        }
+        int mask = table.length - 1;
+        int slot = slot(value);
+        long current;
+        while ((current = table[slot]) != 0) {
+            if (current == value) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of values in the set.
+     *
+     * @return The size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Calls the given action for every value, in no particular order.
+     *
+     * @param action The action to call
+     */
+    public void forEach(LongConsumer action) {
+        if (hasZero) {
+            action.accept(0);
+        }
+        for (long value : table) {
+            if (value != 0) {
+                action.accept(value);
+            }
+        }
+    }
+
+    /**
+     * Copies the values into a new array, in no particular order.
+     *
+     * @return The values
+     */
+    public long[] toArray() {
+        long[] values = new long[size];
+        int i = 0;
+        if (hasZero) {
+            values[i++] = 0;
+        }
+        for (long value : table) {
+            if (value != 0) {
+                values[i++] = value;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Grows the set so that it holds the given number of values without growing again.
+     * Call it before adding many values that were read out of another set: inserting them in that
+     * set's slot order into a smaller table would pile them up into long probe runs.
+     *
+     * @param expected The expected number of values
+     */
+    public void ensureCapacity(int expected) {
+        int capacity = capacityFor(expected);
+        if (capacity > table.length) {
+            rehash(capacity);
+        }
+    }
+
+    /**
+     * Removes every value, keeping the current capacity.
+     */
+    public void clear() {
+        Arrays.fill(table, 0);
+        size = 0;
+        hasZero = false;
+    }
+
+    /**
+     * Returns the first slot to probe for a value.
+     */
+    private int slot(long value) {
+        return (int) ((value * GOLDEN) >>> shift);
+    }
+
+    /**
+     * Returns the power-of-two table size that holds the given number of values.
+     */
+    private static int capacityFor(int expected) {
+        long needed = (long) Math.ceil(expected / LOAD_FACTOR) + 1;
+        int capacity = 16;
+        while (capacity < needed && capacity < 1 << 30) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Allocates an empty table of the given power-of-two capacity.
+     */
+    private void allocate(int capacity) {
+        table = new long[capacity];
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * Doubles the table.
+     */
+    private void grow() {
+        rehash(table.length << 1);
+    }
+
+    /**
+     * Moves every value into a new table of the given capacity.
+     */
+    private void rehash(int capacity) {
+        long[] old = table;
+        allocate(capacity);
+        int mask = table.length - 1;
+        for (long value : old) {
+            if (value != 0) {
+                int slot = slot(value);
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = value;
+            }
+        }
+    }
+}
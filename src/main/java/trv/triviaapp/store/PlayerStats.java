@@ -0,0 +1,367 @@
+package trv.triviaapp.store;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import trv.triviaapp.engine.AnswerRecord;
+import trv.triviaapp.engine.GameListener;
+import trv.triviaapp.engine.GameSession;
+
+/**
+ * Accuracy and speed of every player, per category and difficulty, kept up to date as answers come in.
+ * <p>
+ * Each answer adds to the counters of one cell, found by the player and the small ids that category
+ * and difficulty names are interned to. The counters are {@link LongAdder}s, so sessions answering at
+ * the same time do not contend, and reading never rescans any history: every answer also adds to a
+ * per-category total cell, so {@link #get} is a couple of hash lookups. The stats are saved to a
+ * binary file with {@link #save()}, which callers run periodically, and loaded again when they are
+ * created. All methods are thread-safe.
+ */
+public class PlayerStats {
+    private static final int MAGIC = 0x54505331; // "TPS1"
+    /** Number of difficulty ids a category id is shifted by in a cell key. */
+    private static final int DIFFICULTY_BITS = 8;
+    /** Difficulty id of the cells totalling a category over all difficulties. */
+    private static final int ALL_DIFFICULTIES = (1 << DIFFICULTY_BITS) - 1;
+
+    private final Path file;
+    private final Interned categories = new Interned();
+    private final Interned difficulties = new Interned();
+    private final Map<String, Map<Integer, Cell>> players = new ConcurrentHashMap<>();
+    private volatile boolean dirty;
+
+    /**
+     * Names interned to small ids, assigned in order of first use.
+     */
+    private static final class Interned {
+        final Map<String, Integer> ids = new ConcurrentHashMap<>();
+        final List<String> names = new CopyOnWriteArrayList<>();
+
+        /**
+         * Returns the id of a name, assigning the next one on first use.
+         */
+        int id(String name) {
+            Integer id = ids.get(name);
+            if (id != null) {
+                return id;
+            }
+            synchronized (names) {
+                return ids.computeIfAbsent(name, added -> {
+                    names.add(added);
+                    return names.size() - 1;
+                });
+            }
+        }
+
+        /**
+         * Returns the id of a name, or null if it was never interned.
+         */
+        Integer find(String name) {
+            return ids.get(name);
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            List<String> snapshot = new ArrayList<>(names);
+            out.writeInt(snapshot.size());
+            for (String name : snapshot) {
+                out.writeUTF(name);
+            }
+        }
+
+        void read(DataInputStream in) throws IOException {
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                id(in.readUTF());
+            }
+        }
+    }
+
+    /**
+     * The counters of one player in one category and difficulty.
+     */
+    private static final class Cell {
+        final LongAdder answered = new LongAdder();
+        final LongAdder correct = new LongAdder();
+        final LongAdder timedOut = new LongAdder();
+        final LongAdder thinkNanos = new LongAdder();
+        final LongAdder points = new LongAdder();
+
+        Stats snapshot() {
+            return new Stats(answered.sum(), correct.sum(), timedOut.sum(), thinkNanos.sum(), points.sum());
+        }
+    }
+
+    /**
+     * A read of the counters of a player.
+     *
+     * @param answered The number of questions answered, including timed-out ones
+     * @param correct The number of correct answers
+     * @param timedOut The number of questions left until their time ran out
+     * @param thinkNanos The total think time
+     * @param points The total points scored
+     */
+    public record Stats(long answered, long correct, long timedOut, long thinkNanos, long points) {
+        /** Stats of a player who has not answered anything. */
+        public static final Stats EMPTY = new Stats(0, 0, 0, 0, 0);
+
+        /**
+         * Returns the share of correct answers.
+         *
+         * @return The accuracy between 0 and 1, or 0 if nothing was answered
+         */
+        public double accuracy() {
+            return answered == 0 ? 0 : (double) correct / answered;
+        }
+
+        /**
+         * Returns the mean time taken to answer.
+         *
+         * @return The mean think time in nanoseconds, or 0 if nothing was answered
+         */
+        public long meanThinkNanos() {
+            return answered == 0 ? 0 : thinkNanos / answered;
+        }
+    }
+
+    /**
+     * Opens the stats saved at the given path, or starts empty ones if the file does not exist.
+     *
+     * @param file The file the stats are loaded from and saved to
+     * @throws IOException if the file exists but cannot be read or is not a stats file
+     */
+    public PlayerStats(Path file) throws IOException {
+        this.file = file;
+        if (Files.exists(file)) {
+            load();
+        }
+    }
+
+    /**
+     * Returns the stats file given by the {@code trivia.stats} system property, or
+     * {@code ~/.triviaapp/stats.bin} by default.
+     *
+     * @return The stats path
+     */
+    public static Path defaultPath() {
+        String configured = System.getProperty("trivia.stats");
+        if (configured != null) {
+            return Path.of(configured);
+        }
+        return Path.of(System.getProperty("user.home"), ".triviaapp", "stats.bin");
+    }
+
+    /**
+     * Returns a listener that adds every answer of a session to the stats of the given player.
+     *
+     * @param player The player answering
+     * @return The listener to register with the player's sessions
+     */
+    public GameListener listenerFor(String player) {
+        return new GameListener() {
+            @Override
+            public void onAnswer(GameSession session, AnswerRecord answer) {
+                record(player, answer);
+            }
+        };
+    }
+
+    /**
+     * Adds an answer to the stats of a player.
+     *
+     * @param player The player who answered
+     * @param answer The recorded answer
+     */
+    public void record(String player, AnswerRecord answer) {
+        int categoryId = categories.id(name(answer.question().getCategory()));
+        int difficultyId = difficulties.id(name(answer.question().getDifficulty()));
+        if (difficultyId >= ALL_DIFFICULTIES) {
+            throw new IllegalStateException("Too many distinct difficulties");
+        }
+        add(cell(player, categoryId, difficultyId), answer);
+        add(cell(player, categoryId, ALL_DIFFICULTIES), answer);
+        dirty = true;
+    }
+
+    private static void add(Cell cell, AnswerRecord answer) {
+        cell.answered.increment();
+        if (answer.correct()) {
+            cell.correct.increment();
+        }
+        if (answer.timedOut()) {
+            cell.timedOut.increment();
+        }
+        cell.thinkNanos.add(answer.thinkNanos());
+        cell.points.add(answer.points());
+    }
+
+    /**
+     * Returns the stats of a player in one category and difficulty.
+     *
+     * @param player The player name
+     * @param category The category name
+     * @param difficulty The difficulty name
+     * @return The stats, empty if the player never answered such a question
+     */
+    public Stats get(String player, String category, String difficulty) {
+        Map<Integer, Cell> cells = players.get(player);
+        Integer categoryId = categories.find(name(category));
+        Integer difficultyId = difficulties.find(name(difficulty));
+        if (cells == null || categoryId == null || difficultyId == null) {
+            return Stats.EMPTY;
+        }
+        Cell cell = cells.get(key(categoryId, difficultyId));
+        return cell == null ? Stats.EMPTY : cell.snapshot();
+    }
+
+    /**
+     * Returns the stats of a player in one category, over all difficulties.
+     *
+     * @param player The player name
+     * @param category The category name
+     * @return The stats, empty if the player never answered a question of the category
+     */
+    public Stats get(String player, String category) {
+        Map<Integer, Cell> cells = players.get(player);
+        Integer categoryId = categories.find(name(category));
+        if (cells == null || categoryId == null) {
+            return Stats.EMPTY;
+        }
+        Cell cell = cells.get(key(categoryId, ALL_DIFFICULTIES));
+        return cell == null ? Stats.EMPTY : cell.snapshot();
+    }
+
+    /**
+     * Returns the stats of a player for every category they answered, over all difficulties.
+     *
+     * @param player The player name
+     * @return The stats by category name
+     */
+    public Map<String, Stats> byCategory(String player) {
+        Map<String, Stats> stats = new TreeMap<>();
+        Map<Integer, Cell> cells = players.get(player);
+        if (cells != null) {
+            for (Map.Entry<Integer, Cell> entry : cells.entrySet()) {
+                if ((entry.getKey() & ALL_DIFFICULTIES) == ALL_DIFFICULTIES) {
+                    stats.put(categories.names.get(entry.getKey() >>> DIFFICULTY_BITS), entry.getValue().snapshot());
+                }
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Returns the number of players with stats.
+     *
+     * @return The player count
+     */
+    public int size() {
+        return players.size();
+    }
+
+    /**
+     * Writes the stats to their file if anything changed since the last save, through a temporary
+     * file that is then moved over the old one.
+     * <p>
+     * The counters are read before the name tables are written: an answer interns its names before
+     * it creates its cells, so every cell read has its names in the tables, even while answers keep
+     * coming in.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void save() throws IOException {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        Map<String, Map<Integer, Stats>> snapshot = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<Integer, Cell>> player : players.entrySet()) {
+            Map<Integer, Stats> cells = new LinkedHashMap<>();
+            for (Map.Entry<Integer, Cell> cell : player.getValue().entrySet()) {
+                cells.put(cell.getKey(), cell.getValue().snapshot());
+            }
+            snapshot.put(player.getKey(), cells);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                categories.write(out);
+                difficulties.write(out);
+                out.writeInt(snapshot.size());
+                for (Map.Entry<String, Map<Integer, Stats>> player : snapshot.entrySet()) {
+                    out.writeUTF(player.getKey());
+                    out.writeInt(player.getValue().size());
+                    for (Map.Entry<Integer, Stats> cell : player.getValue().entrySet()) {
+                        Stats stats = cell.getValue();
+                        out.writeInt(cell.getKey());
+                        out.writeLong(stats.answered());
+                        out.writeLong(stats.correct());
+                        out.writeLong(stats.timedOut());
+                        out.writeLong(stats.thinkNanos());
+                        out.writeLong(stats.points());
+                    }
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty = true;
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the stats file.
+     */
+    private void load() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a player stats file");
+            }
+            categories.read(in);
+            difficulties.read(in);
+            int playerCount = in.readInt();
+            for (int i = 0; i < playerCount; i++) {
+                String player = in.readUTF();
+                int cellCount = in.readInt();
+                for (int j = 0; j < cellCount; j++) {
+                    int key = in.readInt();
+                    Cell cell = cell(player, key >>> DIFFICULTY_BITS, key & ((1 << DIFFICULTY_BITS) - 1));
+                    cell.answered.add(in.readLong());
+                    cell.correct.add(in.readLong());
+                    cell.timedOut.add(in.readLong());
+                    cell.thinkNanos.add(in.readLong());
+                    cell.points.add(in.readLong());
+                }
+            }
+        }
+    }
+
+    private Cell cell(String player, int categoryId, int difficultyId) {
+        return players.computeIfAbsent(player, name -> new ConcurrentHashMap<>())
+                .computeIfAbsent(key(categoryId, difficultyId), key -> new Cell());
+    }
+
+    private static String name(String name) {
+        return name == null ? "" : name;
+    }
+
+    private static int key(int categoryId, int difficultyId) {
+        return categoryId << DIFFICULTY_BITS | difficultyId;
+    }
+}
@@ -0,0 +1,225 @@
+package trv.triviaapp.store;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import trv.triviaapp.model.Question;
+
+/**
+ * An in-memory bank of questions indexed by category, difficulty and type.
+ * <p>
+ * Every question gets a dense id, and each category, difficulty and type value has a {@link BitSet}
+ * of the ids that carry it. A query such as "hard Science multiple-choice questions" intersects at
+ * most three bitsets, which takes microseconds even for large banks. Queries work on an immutable
+ * snapshot and never block; {@link #add(Collection)} publishes a new snapshot, copying only the
+ * bitsets it changes. A question without a category, difficulty or type is indexed under the
+ * empty string for it.
+ */
+public class QuestionBank {
+
+    /**
+     * An immutable view of the bank. The bitsets are never modified once published, and the array
+     * is only ever written past {@code size}, so the first {@code size} slots never change.
+     */
+    private record Snapshot(Question[] questions, int size, Map<String, BitSet> byCategory,
+            Map<String, BitSet> byDifficulty, Map<String, BitSet> byType) {
+    }
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private volatile Snapshot snapshot = new Snapshot(new Question[16], 0, Map.of(), Map.of(), Map.of());
+
+    /**
+     * Adds questions to the bank, ignoring those it already holds (by question text).
+     *
+     * @param added The questions to add
+     * @return The number of new questions
+     */
+    public synchronized int add(Collection<Question> added) {
+        Snapshot current = snapshot;
+        Question[] questions = current.questions();
+        int size = current.size();
+        Map<String, BitSet> byCategory = new HashMap<>(current.byCategory());
+        Map<String, BitSet> byDifficulty = new HashMap<>(current.byDifficulty());
+        Map<String, BitSet> byType = new HashMap<>(current.byType());
+        Set<BitSet> copies = Collections.newSetFromMap(new IdentityHashMap<>());
+        Map<String, Integer> claimed = new HashMap<>();
+
+        for (Question question : added) {
+            if (ids.containsKey(question.getQuestion()) || claimed.putIfAbsent(question.getQuestion(), size) != null) {
+                continue;
+            }
+            if (size == questions.length) {
+                questions = Arrays.copyOf(questions, size * 2);
+            }
+            int id = size++;
+            questions[id] = question;
+            index(byCategory, question.getCategory(), id, copies);
+            index(byDifficulty, question.getDifficulty(), id, copies);
+            index(byType, question.getType(), id, copies);
+        }
+
+        int count = size - current.size();
+        if (count > 0) {
+            snapshot = new Snapshot(questions, size, Map.copyOf(byCategory),
+                    Map.copyOf(byDifficulty), Map.copyOf(byType));
+            // Only claim the texts once the questions are published, so a failed add leaves no trace
+            ids.putAll(claimed);
+        }
+        return count;
+    }
+
+    /**
+     * Sets the bit of a question in the bitset of one attribute value, copying a published bitset
+     * the first time it is changed. A missing value is indexed as the empty string.
+     */
+    private static void index(Map<String, BitSet> index, String value, int id, Set<BitSet> copies) {
+        String key = value == null ? "" : value;
+        BitSet bits = index.get(key);
+        if (bits == null) {
+            bits = new BitSet();
+            copies.add(bits);
+            index.put(key, bits);
+        } else if (!copies.contains(bits)) {
+            bits = (BitSet) bits.clone();
+            copies.add(bits);
+            index.put(key, bits);
+        }
+        bits.set(id);
+    }
+
+    /**
+     * Picks random distinct questions matching the given attributes.
+     *
+     * @param category The category, or null for any
+     * @param difficulty The difficulty ("easy", "medium" or "hard"), or null for any
+     * @param type The type ("multiple" or "boolean"), or null for any
+     * @param count The number of questions wanted
+     * @return Up to {@code count} matching questions in random order, fewer if not enough match
+     */
+    public List<Question> find(String category, String difficulty, String type, int count) {
+        Snapshot current = snapshot;
+        if (category == null && difficulty == null && type == null && current.size() > count) {
+            // Unfiltered draws from a large bank skip building the list of every id
+            int[] ids = ThreadLocalRandom.current().ints(0, current.size()).distinct().limit(count).toArray();
+            List<Question> result = new ArrayList<>(count);
+            for (int id : ids) {
+                result.add(current.questions()[id]);
+            }
+            return result;
+        }
+        BitSet matching = matching(current, category, difficulty, type);
+        int[] matches = new int[matching.cardinality()];
+        for (int i = 0, id = matching.nextSetBit(0); id >= 0; id = matching.nextSetBit(id + 1)) {
+            matches[i++] = id;
+        }
+        int picked = Math.min(count, matches.length);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Question> result = new ArrayList<>(picked);
+        // Partial Fisher-Yates: only the first picked slots are shuffled
+        for (int i = 0; i < picked; i++) {
+            int j = i + random.nextInt(matches.length - i);
+            int id = matches[j];
+            matches[j] = matches[i];
+            matches[i] = id;
+            result.add(current.questions()[id]);
+        }
+        return result;
+    }
+
+    /**
+     * Counts the questions matching the given attributes.
+     *
+     * @param category The category, or null for any
+     * @param difficulty The difficulty, or null for any
+     * @param type The type, or null for any
+     * @return The number of matching questions
+     */
+    public int count(String category, String difficulty, String type) {
+        return matching(snapshot, category, difficulty, type).cardinality();
+    }
+
+    /**
+     * Intersects the bitsets of the requested attributes.
+     *
+     * @return A new bitset of the matching ids
+     */
+    private static BitSet matching(Snapshot current, String category, String difficulty, String type) {
+        BitSet result = null;
+        String[] keys = {category, difficulty, type};
+        List<Map<String, BitSet>> indexes = List.of(current.byCategory(), current.byDifficulty(), current.byType());
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == null) {
+                continue;
+            }
+            BitSet bits = indexes.get(i).get(keys[i]);
+            if (bits == null) {
+                // An unknown value matches nothing
+                return new BitSet();
+            }
+            if (result == null) {
+                result = (BitSet) bits.clone();
+            } else {
+                result.and(bits);
+            }
+        }
+        if (result == null) {
+            result = new BitSet(current.size());
+            result.set(0, current.size());
+        }
+        return result;
+    }
+
+    /**
+     * Returns the known categories.
+     *
+     * @return The categories of the questions in the bank
+     */
+    public Set<String> getCategories() {
+        return snapshot.byCategory().keySet();
+    }
+
+    /**
+     * Returns the known difficulties.
+     *
+     * @return The difficulties of the questions in the bank
+     */
+    public Set<String> getDifficulties() {
+        return snapshot.byDifficulty().keySet();
+    }
+
+    /**
+     * Returns the known types.
+     *
+     * @return The types of the questions in the bank
+     */
+    public Set<String> getTypes() {
+        return snapshot.byType().keySet();
+    }
+
+    /**
+     * Returns every question in the bank.
+     *
+     * @return An immutable copy of the questions, in the order they were added
+     */
+    public List<Question> getQuestions() {
+        Snapshot current = snapshot;
+        return List.of(Arrays.copyOf(current.questions(), current.size()));
+    }
+
+    /**
+     * Returns the number of questions in the bank.
+     *
+     * @return The bank size
+     */
+    public int size() {
+        return snapshot.size();
+    }
+}
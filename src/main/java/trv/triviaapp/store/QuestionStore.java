@@ -0,0 +1,311 @@
+package trv.triviaapp.store;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import trv.triviaapp.api.QuestionSource;
+import trv.triviaapp.model.Question;
+import trv.triviaapp.model.QuestionSet;
+
+/**
+ * A local, persistent store of every question fetched from the Trivia API.
+ * <p>
+ * Questions are kept in an append-only binary file: a 4-byte magic header followed by records made of
+ * a 4-byte length and the encoded question. At startup the whole file is read and decoded in one pass
+ * by a {@link RecordReader}; a truncated record left by a crash ends the scan and is cut off. The store can serve games
+ * on its own, which lets the game keep working when the API is unreachable or rate-limited.
+ */
+public class QuestionStore implements QuestionSource {
+    private static final Logger LOG = Logger.getLogger(QuestionStore.class.getName());
+    private static final int MAGIC = 0x54515331; // "TQS1"
+    /** Number of questions in a game served from the store. */
+    public static final int GAME_SIZE = 10;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final List<Question> questions = new ArrayList<>();
+    private final Map<String, Question> byText = new HashMap<>();
+    private final long loadTimeNanos;
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong lookupNanos = new AtomicLong();
+
+    /**
+     * Opens the store at the given path, creating the file if it does not exist yet,
+     * and loads all stored questions into memory.
+     *
+     * @param file The store file
+     * @throws IOException if the file cannot be created, read or is not a question store
+     */
+    public QuestionStore(Path file) throws IOException {
+        this.file = file;
+        long start = System.nanoTime();
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            load();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        this.loadTimeNanos = System.nanoTime() - start;
+        LOG.log(Level.INFO, "Loaded {0} stored questions from {1} in {2} ms",
+                new Object[]{questions.size(), file, loadTimeNanos / 1_000_000});
+    }
+
+    /**
+     * Returns the default location of the store, which can be overridden with the
+     * {@code trivia.store} system property.
+     *
+     * @return The default store path
+     */
+    public static Path defaultPath() {
+        String configured = System.getProperty("trivia.store");
+        if (configured != null) {
+            return Path.of(configured);
+        }
+        return Path.of(System.getProperty("user.home"), ".triviaapp", "questions.bin");
+    }
+
+    /**
+     * Reads the file and decodes every complete record, truncating a partial trailing record.
+     *
+     * @throws IOException if the file cannot be read or has an unknown header
+     */
+    private void load() throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES).putInt(MAGIC).flip();
+            channel.write(header, 0);
+            return;
+        }
+        long valid = RecordReader.scan(channel, MAGIC, record -> index(decode(record)));
+        if (valid < 0) {
+            throw new IOException(file + " is not a question store");
+        }
+        if (valid < size) {
+            LOG.log(Level.WARNING, "Discarding {0} bytes of incomplete data at the end of {1}",
+                    new Object[]{size - valid, file});
+            channel.truncate(valid);
+        }
+    }
+
+    /**
+     * Appends the questions that are not stored yet to the end of the file.
+     *
+     * @param fetched The questions to store
+     * @return The number of new questions written
+     * @throws IOException if the questions cannot be written
+     */
+    public synchronized int append(Collection<Question> fetched) throws IOException {
+        List<Question> added = new ArrayList<>();
+        List<ByteBuffer> records = new ArrayList<>();
+        Map<String, Question> batch = new HashMap<>();
+        for (Question question : fetched) {
+            String text = question.getQuestion();
+            if (!byText.containsKey(text) && batch.putIfAbsent(text, question) == null) {
+                added.add(question);
+                records.add(encode(question));
+            }
+        }
+        // One gathering write per batch, so bulk imports do not pay a system call per question
+        ByteBuffer[] buffers = records.toArray(ByteBuffer[]::new);
+        channel.position(channel.size());
+        while (buffers.length > 0 && buffers[buffers.length - 1].hasRemaining()) {
+            channel.write(buffers);
+        }
+        added.forEach(this::index);
+        return added.size();
+    }
+
+    /**
+     * Adds a question to the in-memory view.
+     *
+     * @param question The question to add
+     */
+    private void index(Question question) {
+        if (byText.putIfAbsent(question.getQuestion(), question) == null) {
+            questions.add(question);
+        }
+    }
+
+    /**
+     * Looks up a stored question by its text.
+     *
+     * @param text The question text
+     * @return The stored question, or null if it is not in the store
+     */
+    public Question find(String text) {
+        long start = System.nanoTime();
+        Question found;
+        synchronized (this) {
+            found = byText.get(text);
+        }
+        recordLookup(start);
+        return found;
+    }
+
+    /**
+     * Serves a game from the store by picking random questions.
+     *
+     * @return A question set of up to {@link #GAME_SIZE} stored questions, or null if the store is empty
+     */
+    @Override
+    public QuestionSet fetch() {
+        long start = System.nanoTime();
+        List<Question> picked = new ArrayList<>(GAME_SIZE);
+        synchronized (this) {
+            int size = questions.size();
+            if (size == 0) {
+                return null;
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int[] indexes = random.ints(0, size).distinct().limit(Math.min(GAME_SIZE, size)).toArray();
+            for (int index : indexes) {
+                picked.add(questions.get(index));
+            }
+        }
+        recordLookup(start);
+        return new QuestionSet(0, picked);
+    }
+
+    /**
+     * Adds one lookup to the latency statistics.
+     *
+     * @param start The System.nanoTime() value taken when the lookup began
+     */
+    private void recordLookup(long start) {
+        lookupNanos.addAndGet(System.nanoTime() - start);
+        lookups.incrementAndGet();
+    }
+
+    /**
+     * Returns all stored questions.
+     *
+     * @return An immutable snapshot of the stored questions, in the order they were added
+     */
+    public synchronized List<Question> snapshot() {
+        return List.copyOf(questions);
+    }
+
+    /**
+     * Returns the number of stored questions.
+     *
+     * @return The store size
+     */
+    public synchronized int size() {
+        return questions.size();
+    }
+
+    /**
+     * Returns how long it took to open and load the store.
+     *
+     * @return The load time in nanoseconds
+     */
+    public long getLoadTimeNanos() {
+        return loadTimeNanos;
+    }
+
+    /**
+     * Returns the mean latency of lookups and game picks served by the store so far.
+     *
+     * @return The mean lookup latency in nanoseconds, or 0 if there were no lookups
+     */
+    public long getMeanLookupNanos() {
+        long count = lookups.get();
+        return count == 0 ? 0 : lookupNanos.get() / count;
+    }
+
+    /**
+     * Flushes written records to disk and closes the file.
+     *
+     * @throws IOException if the file cannot be synced or closed
+     */
+    public synchronized void close() throws IOException {
+        if (channel.isOpen()) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    /**
+     * Encodes a question as a length-prefixed record.
+     *
+     * @param question The question to encode
+     * @return A buffer ready to be written
+     */
+    private static ByteBuffer encode(Question question) {
+        List<String> incorrect = question.getIncorrectAnsw();
+        byte[][] fields = new byte[5 + incorrect.size()][];
+        fields[0] = bytes(question.getType());
+        fields[1] = bytes(question.getDifficulty());
+        fields[2] = bytes(question.getCategory());
+        fields[3] = bytes(question.getQuestion());
+        fields[4] = bytes(question.getCorrectAnsw());
+        for (int i = 0; i < incorrect.size(); i++) {
+            fields[5 + i] = bytes(incorrect.get(i));
+        }
+
+        int length = 1;
+        for (byte[] field : fields) {
+            length += Integer.BYTES + field.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + length);
+        buffer.putInt(length);
+        buffer.put((byte) incorrect.size());
+        for (byte[] field : fields) {
+            buffer.putInt(field.length).put(field);
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Decodes a record produced by {@link #encode(Question)}.
+     *
+     * @param record The record contents, without the length prefix
+     * @return The decoded question
+     */
+    private static Question decode(ByteBuffer record) {
+        int incorrectCount = record.get() & 0xFF;
+        String type = string(record);
+        String difficulty = string(record);
+        String category = string(record);
+        String text = string(record);
+        String correct = string(record);
+        String[] incorrect = new String[incorrectCount];
+        for (int i = 0; i < incorrectCount; i++) {
+            incorrect[i] = string(record);
+        }
+        return new Question(type, difficulty, category, text, correct, incorrect);
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(ByteBuffer record) {
+        int length = record.getInt();
+        if (length < 0 || length > record.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] value = new byte[length];
+        record.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,90 @@
+package trv.triviaapp.store;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.function.Consumer;
+
+/**
+ * Reads the files of the stores in this package: a 4-byte magic header followed by records made of a
+ * 4-byte length and the record contents.
+ * <p>
+ * The file is read through its channel into one reused direct buffer rather than mapped, so the
+ * caller can truncate a partial trailing record right after the scan; a file cannot be truncated
+ * while a mapping of it is alive on every platform, and a mapping is only released by the garbage collector.
+ */
+final class RecordReader {
+    /** Size of the read buffer; a longer record gets a buffer of its own. */
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private ByteBuffer buffer;
+    /** Offset in the file of the next byte to read into the buffer. */
+    private long offset;
+
+    private RecordReader(FileChannel channel, long size) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect((int) Math.min(BUFFER_SIZE, Math.max(size, Integer.BYTES)));
+        buffer.flip();
+    }
+
+    /**
+     * Hands every complete record of a file to a consumer, in file order. The scan ends at the first
+     * partial record, or when the consumer throws a {@link BufferUnderflowException} for a record
+     * that is too short. The record buffer is only valid during the call to the consumer.
+     *
+     * @param channel The file, which must not be empty
+     * @param magic The expected header
+     * @param consumer The receiver of the record contents, without the length prefix
+     * @return The offset just past the last complete record, or -1 if the header does not match
+     * @throws IOException if the file cannot be read
+     */
+    static long scan(FileChannel channel, int magic, Consumer<ByteBuffer> consumer) throws IOException {
+        long size = channel.size();
+        RecordReader reader = new RecordReader(channel, size);
+        if (!reader.fill(Integer.BYTES) || reader.buffer.getInt() != magic) {
+            return -1;
+        }
+        long valid = Integer.BYTES;
+        while (reader.fill(Integer.BYTES)) {
+            int length = reader.buffer.getInt();
+            if (length < 0 || length > size - valid - Integer.BYTES || !reader.fill(length)) {
+                break;
+            }
+            ByteBuffer record = reader.buffer.slice(reader.buffer.position(), length);
+            reader.buffer.position(reader.buffer.position() + length);
+            try {
+                consumer.accept(record);
+            } catch (BufferUnderflowException e) {
+                break;
+            }
+            valid += Integer.BYTES + length;
+        }
+        return valid;
+    }
+
+    /**
+     * Reads until the buffer holds at least the given number of unread bytes, growing it if needed.
+     *
+     * @return false if the file ends first
+     */
+    private boolean fill(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return true;
+        }
+        if (bytes > buffer.capacity()) {
+            ByteBuffer larger = ByteBuffer.allocateDirect(bytes);
+            larger.put(buffer);
+            buffer = larger;
+        } else {
+            buffer.compact();
+        }
+        int read;
+        while (buffer.hasRemaining() && (read = channel.read(buffer, offset)) > 0) {
+            offset += read;
+        }
+        buffer.flip();
+        return buffer.remaining() >= bytes;
+    }
+}
@@ -0,0 +1,423 @@
+package trv.triviaapp.store;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import trv.triviaapp.metrics.LatencyHistogram;
+import trv.triviaapp.metrics.Metrics;
+
+/**
+ * A durable log of finished games feeding a {@link Leaderboard}.
+ * <p>
+ * Results are kept in an append-only binary file: a 4-byte magic header followed by records made of a
+ * 4-byte length and the encoded result. When the log is opened, every record is replayed into the
+ * leaderboard by a {@link RecordReader}; a truncated record left by a crash ends the scan and is cut off.
+ * <p>
+ * {@link #record(GameResult)} updates the leaderboard right away and queues the result for a single
+ * writer thread, which writes everything queued in one go and syncs it to disk once per batch, so
+ * many games finishing together share one {@code fsync}. Once the file holds more than
+ * {@link #COMPACT_RATIO} records per player (and at least {@link #COMPACT_MIN_RECORDS}), the writer
+ * rewrites it with the best game of each player, which is all the leaderboard needs, followed by the
+ * last {@link #KEEP_RECENT} results. Older games that were nobody's best are dropped from the file.
+ */
+public class ScoreLog {
+    private static final Logger LOG = Logger.getLogger(ScoreLog.class.getName());
+    private static final int MAGIC = 0x54534C31; // "TSL1"
+    /** Maximum number of results written and synced together. */
+    public static final int MAX_BATCH = 4096;
+    /** Records per player above which the file is compacted. */
+    public static final int COMPACT_RATIO = 4;
+    /** Smallest file, in records, that is worth compacting. */
+    public static final long COMPACT_MIN_RECORDS = 10_000;
+    /** Number of most recent results kept by a compaction besides the best game of each player. */
+    public static final int KEEP_RECENT = 1000;
+    /** Time spent writing and syncing a batch. */
+    private static final LatencyHistogram SYNC_TIMER = Metrics.timer("scores.sync");
+    private static final LongAdder COMPACTIONS = Metrics.counter("scores.compactions");
+    /** Queue entry that stops the writer. */
+    private static final Pending CLOSE = new Pending(null, null);
+
+    private final Path file;
+    private final Leaderboard leaderboard;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private FileChannel channel;
+    /** Records in the file; only used by the writer once the log is open. */
+    private long records;
+    /** The last results in the file, oldest first; only used by the writer once the log is open. */
+    private final Deque<GameResult> recent = new ArrayDeque<>(KEEP_RECENT);
+    /** Guards {@link #closed} and adding to the queue, so nothing can be queued after {@link #CLOSE}. */
+    private final Object lock = new Object();
+    private boolean closed;
+
+    /**
+     * A result waiting to be written, or a compaction request when the result is null.
+     */
+    private record Pending(GameResult result, CompletableFuture<Void> done) {
+    }
+
+    /**
+     * Opens the log at the given path, creating the file if it does not exist yet, replays it into the
+     * leaderboard and starts the writer thread.
+     *
+     * @param file The log file
+     * @param leaderboard The leaderboard to fill and keep up to date
+     * @throws IOException if the file cannot be created, read or is not a score log
+     */
+    public ScoreLog(Path file, Leaderboard leaderboard) throws IOException {
+        this.file = file;
+        this.leaderboard = leaderboard;
+        long start = System.nanoTime();
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.channel = open(file);
+        try {
+            load();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        LOG.log(Level.INFO, "Loaded {0} game results for {1} players from {2} in {3} ms",
+                new Object[]{records, leaderboard.size(), file, (System.nanoTime() - start) / 1_000_000});
+        this.writer = new Thread(this::run, "trivia-score-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Returns the log file given by the {@code trivia.scores} system property, or
+     * {@code ~/.triviaapp/scores.bin} by default.
+     *
+     * @return The log path
+     */
+    public static Path defaultPath() {
+        String configured = System.getProperty("trivia.scores");
+        if (configured != null) {
+            return Path.of(configured);
+        }
+        return Path.of(System.getProperty("user.home"), ".triviaapp", "scores.bin");
+    }
+
+    /**
+     * Returns the leaderboard kept up to date by this log.
+     *
+     * @return The leaderboard
+     */
+    public Leaderboard getLeaderboard() {
+        return leaderboard;
+    }
+
+    /**
+     * Records a finished game: the leaderboard is updated immediately and the result is queued for writing.
+     *
+     * @param result The game result
+     * @return A future completed once the result is synced to disk, or completed exceptionally if it
+     *         could not be written
+     * @throws IllegalStateException if the log is closed
+     */
+    public CompletableFuture<Void> record(GameResult result) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        synchronized (lock) {
+            ensureOpen();
+            leaderboard.record(result);
+            queue.add(new Pending(result, done));
+        }
+        return done;
+    }
+
+    /**
+     * Asks the writer to rewrite the file with the best game of each player and the most recent
+     * results, after the results queued so far.
+     *
+     * @return A future completed once the file has been compacted
+     * @throws IllegalStateException if the log is closed
+     */
+    public CompletableFuture<Void> compact() {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        synchronized (lock) {
+            ensureOpen();
+            queue.add(new Pending(null, done));
+        }
+        return done;
+    }
+
+    /**
+     * Must be called while holding the lock.
+     *
+     * @throws IllegalStateException if the log is closed
+     */
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("The score log is closed");
+        }
+    }
+
+    /**
+     * Writes the queued results, stops the writer and closes the file.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.add(CLOSE);
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    /**
+     * Reads the file and replays every complete record, truncating a partial trailing record.
+     *
+     * @throws IOException if the file cannot be read or has an unknown header
+     */
+    private void load() throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES).putInt(MAGIC).flip();
+            channel.write(header, 0);
+            channel.position(Integer.BYTES);
+            return;
+        }
+        long valid = RecordReader.scan(channel, MAGIC, record -> {
+            GameResult result = decode(record);
+            leaderboard.record(result);
+            remember(result);
+            records++;
+        });
+        if (valid < 0) {
+            throw new IOException(file + " is not a score log");
+        }
+        if (valid < size) {
+            LOG.log(Level.WARNING, "Discarding {0} bytes of incomplete data at the end of {1}",
+                    new Object[]{size - valid, file});
+            channel.truncate(valid);
+        }
+        channel.position(valid);
+    }
+
+    /**
+     * The writer loop: takes everything queued, writes and syncs it, and compacts when needed.
+     */
+    private void run() {
+        List<Pending> batch = new ArrayList<>();
+        try {
+            boolean stop = false;
+            while (!stop) {
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH - 1);
+                stop = write(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // The queue is empty after CLOSE; an interrupted writer fails whatever it leaves behind
+            queue.drainTo(batch);
+            IOException stopped = new IOException("The score writer stopped");
+            for (Pending pending : batch) {
+                if (pending.done() != null) {
+                    pending.done().completeExceptionally(stopped);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a batch with one gathering write and one sync, then completes its futures. The futures
+     * of results only depend on the write; a compaction failing afterwards leaves them on disk in the
+     * uncompacted file, so it only fails the futures of explicit compaction requests.
+     *
+     * @param batch The queued entries
+     * @return true if the batch asked the writer to stop
+     */
+    private boolean write(List<Pending> batch) {
+        boolean stop = false;
+        boolean compact = false;
+        List<ByteBuffer> encoded = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            if (pending == CLOSE) {
+                stop = true;
+            } else if (pending.result() == null) {
+                compact = true;
+            } else {
+                encoded.add(encode(pending.result()));
+            }
+        }
+
+        IOException failure = null;
+        if (!encoded.isEmpty()) {
+            try {
+                long start = System.nanoTime();
+                ByteBuffer[] buffers = encoded.toArray(ByteBuffer[]::new);
+                while (buffers[buffers.length - 1].hasRemaining()) {
+                    channel.write(buffers);
+                }
+                channel.force(false);
+                records += encoded.size();
+                for (Pending pending : batch) {
+                    if (pending.result() != null) {
+                        remember(pending.result());
+                    }
+                }
+                SYNC_TIMER.recordSince(start);
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Could not write game results to " + file, e);
+                failure = e;
+            }
+        }
+
+        IOException compactFailure = null;
+        if (compact || (records >= COMPACT_MIN_RECORDS && records > (long) COMPACT_RATIO * leaderboard.size())) {
+            try {
+                compactFile();
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Could not compact " + file, e);
+                compactFailure = e;
+            }
+        }
+
+        for (Pending pending : batch) {
+            if (pending.done() == null) {
+                continue;
+            }
+            IOException outcome = pending.result() != null ? failure : compactFailure;
+            if (outcome == null) {
+                pending.done().complete(null);
+            } else {
+                pending.done().completeExceptionally(outcome);
+            }
+        }
+        return stop;
+    }
+
+    /**
+     * Rewrites the file with the best game of each player and the most recent results, and swaps it
+     * in atomically. If the new file cannot be moved into place, the log goes on appending to the old one.
+     *
+     * @throws IOException if the compacted file cannot be written or moved into place
+     */
+    private void compactFile() throws IOException {
+        long start = System.nanoTime();
+        long before = records;
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        long written = 0;
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            List<ByteBuffer> buffers = new ArrayList<>(MAX_BATCH);
+            buffers.add(ByteBuffer.allocate(Integer.BYTES).putInt(MAGIC).flip());
+            Set<GameResult> kept = new HashSet<>();
+            for (GameResult result : leaderboard.results()) {
+                kept.add(result);
+                buffers.add(encode(result));
+                written++;
+                if (buffers.size() >= MAX_BATCH) {
+                    writeFully(out, buffers);
+                }
+            }
+            for (GameResult result : recent) {
+                if (kept.add(result)) {
+                    buffers.add(encode(result));
+                    written++;
+                    if (buffers.size() >= MAX_BATCH) {
+                        writeFully(out, buffers);
+                    }
+                }
+            }
+            writeFully(out, buffers);
+            out.force(false);
+        }
+        channel.close();
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            records = written;
+        } finally {
+            channel = open(file);
+            channel.position(channel.size());
+        }
+        COMPACTIONS.increment();
+        LOG.log(Level.INFO, "Compacted {0} game results to {1} in {2} ms",
+                new Object[]{before, written, (System.nanoTime() - start) / 1_000_000});
+    }
+
+    /**
+     * Adds a result written to the file to the most recent ones.
+     */
+    private void remember(GameResult result) {
+        if (recent.size() == KEEP_RECENT) {
+            recent.pollFirst();
+        }
+        recent.addLast(result);
+    }
+
+    private static void writeFully(FileChannel out, List<ByteBuffer> buffers) throws IOException {
+        ByteBuffer[] array = buffers.toArray(ByteBuffer[]::new);
+        while (array.length > 0 && array[array.length - 1].hasRemaining()) {
+            out.write(array);
+        }
+        buffers.clear();
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Encodes a result as a length-prefixed record.
+     *
+     * @param result The result to encode
+     * @return A buffer ready to be written
+     */
+    private static ByteBuffer encode(GameResult result) {
+        byte[] player = result.player().getBytes(StandardCharsets.UTF_8);
+        int length = Integer.BYTES + player.length + 3 * Integer.BYTES + Long.BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + length);
+        buffer.putInt(length);
+        buffer.putInt(player.length).put(player);
+        buffer.putInt(result.points()).putInt(result.score()).putInt(result.questions()).putLong(result.time());
+        return buffer.flip();
+    }
+
+    /**
+     * Decodes a record produced by {@link #encode(GameResult)}.
+     *
+     * @param record The record contents, without the length prefix
+     * @return The decoded result
+     */
+    private static GameResult decode(ByteBuffer record) {
+        int length = record.getInt();
+        if (length < 0 || length > record.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] player = new byte[length];
+        record.get(player);
+        return new GameResult(new String(player, StandardCharsets.UTF_8), record.getInt(), record.getInt(),
+                record.getInt(), record.getLong());
+    }
+}
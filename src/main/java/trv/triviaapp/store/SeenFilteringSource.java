@@ -0,0 +1,79 @@
+package trv.triviaapp.store;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import trv.triviaapp.api.QuestionSource;
+import trv.triviaapp.model.Question;
+import trv.triviaapp.model.QuestionSet;
+
+/**
+ * A question source that avoids repeating questions a player has already been asked.
+ * <p>
+ * Each game is built from questions the player has not seen, fetching from the underlying source
+ * up to a few times to find enough of them. If the source keeps returning seen questions, the game
+ * is topped up with seen ones rather than being cut short. Nothing is marked as seen here, since a
+ * fetched game may be buffered and never played; the caller marks the questions of a game once it starts.
+ */
+public class SeenFilteringSource implements QuestionSource {
+    /** Number of fetches tried to fill a game with unseen questions. */
+    public static final int DEFAULT_ATTEMPTS = 3;
+
+    private final QuestionSource source;
+    private final SeenQuestions seen;
+    private final String player;
+    private final int gameSize;
+    private final int attempts;
+
+    /**
+     * Creates a filtering source for one player.
+     *
+     * @param source The source of candidate questions
+     * @param seen The seen-question registry
+     * @param player The player games are built for
+     * @param gameSize The number of questions in a game
+     * @param attempts The maximum number of fetches per game
+     */
+    public SeenFilteringSource(QuestionSource source, SeenQuestions seen, String player, int gameSize, int attempts) {
+        this.source = source;
+        this.seen = seen;
+        this.player = player;
+        this.gameSize = gameSize;
+        this.attempts = attempts;
+    }
+
+    /**
+     * Builds a game out of questions the player has not seen, as far as the source allows.
+     *
+     * @return The question set; its response code is the one of the last fetch
+     * @throws IOException if the first fetch fails
+     */
+    @Override
+    public QuestionSet fetch() throws IOException {
+        List<Question> candidates = new ArrayList<>();
+        QuestionSet last = null;
+        for (int attempt = 0; attempt < attempts; attempt++) {
+            QuestionSet fetched;
+            try {
+                fetched = source.fetch();
+            } catch (IOException e) {
+                if (last == null) {
+                    throw e;
+                }
+                break;
+            }
+            last = fetched;
+            if (fetched == null || fetched.getQuestions() == null || fetched.getQuestions().isEmpty()) {
+                break;
+            }
+            candidates.addAll(fetched.getQuestions());
+            if (seen.countUnseen(player, candidates) >= gameSize) {
+                break;
+            }
+        }
+        if (candidates.isEmpty()) {
+            return last;
+        }
+        return new QuestionSet(last.getResponseCode(), seen.choose(player, candidates, gameSize));
+    }
+}
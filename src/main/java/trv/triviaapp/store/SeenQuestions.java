@@ -0,0 +1,304 @@
+package trv.triviaapp.store;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import trv.triviaapp.model.Question;
+
+/**
+ * Remembers which questions have already been asked, globally and for each player.
+ * <p>
+ * A question is identified by a 64-bit hash of its decoded text, kept in {@link LongHashSet}s, so
+ * millions of seen questions cost a few megabytes. The sets are saved to a binary file with
+ * {@link #save()} and loaded again when the registry is created. All methods are thread-safe.
+ */
+public class SeenQuestions {
+    private static final int MAGIC = 0x54535331; // "TSS1"
+
+    private final Path file;
+    private final LongHashSet global = new LongHashSet();
+    private final Map<String, LongHashSet> players = new HashMap<>();
+    /** Held for a whole save, so two saves never write the temporary file at the same time. */
+    private final Object saveLock = new Object();
+    private boolean dirty;
+
+    /**
+     * Opens the registry saved at the given path, or starts an empty one if the file does not exist.
+     *
+     * @param file The file the registry is loaded from and saved to
+     * @throws IOException if the file exists but cannot be read or is not a seen-question file
+     */
+    public SeenQuestions(Path file) throws IOException {
+        this.file = file;
+        if (Files.exists(file)) {
+            load();
+        }
+    }
+
+    /**
+     * Returns the registry file given by the {@code trivia.seen} system property, or
+     * {@code ~/.triviaapp/seen.bin} by default.
+     *
+     * @return The registry path
+     */
+    public static Path defaultPath() {
+        String configured = System.getProperty("trivia.seen");
+        if (configured != null) {
+            return Path.of(configured);
+        }
+        return Path.of(System.getProperty("user.home"), ".triviaapp", "seen.bin");
+    }
+
+    /**
+     * Computes the 64-bit identity of a question from its decoded text.
+     *
+     * @param question The question
+     * @return The hash of the question text
+     */
+    public static long hash(Question question) {
+        return hash(question.getQuestion());
+    }
+
+    /**
+     * Computes a 64-bit hash of a string: FNV-1a over its characters, followed by the
+     * MurmurHash3 finalizer to spread the bits.
+     *
+     * @param text The text to hash
+     * @return The hash
+     */
+    public static long hash(String text) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            h ^= text.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Picks the questions for a game that starts right away and marks them as seen.
+     *
+     * @param player The player the game is for
+     * @param candidates The questions to choose from, in order of preference
+     * @param count The number of questions wanted
+     * @return Up to {@code count} distinct questions
+     * @see #choose(String, Collection, int)
+     */
+    public synchronized List<Question> select(String player, Collection<Question> candidates, int count) {
+        List<Question> picked = choose(player, candidates, count);
+        markSeen(player, picked);
+        return picked;
+    }
+
+    /**
+     * Picks the questions for a game, preferring questions the player has not seen, and among those
+     * the ones nobody has seen. Seen questions are only used when there are not enough unseen ones.
+     * Nothing is marked; use {@link #markSeen(String, Collection)} once the game is actually played.
+     *
+     * @param player The player the game is for
+     * @param candidates The questions to choose from, in order of preference
+     * @param count The number of questions wanted
+     * @return Up to {@code count} distinct questions
+     */
+    public synchronized List<Question> choose(String player, Collection<Question> candidates, int count) {
+        LongHashSet mine = players.get(player);
+        LongHashSet distinct = new LongHashSet(candidates.size());
+        List<Question> fresh = new ArrayList<>();
+        List<Question> newToPlayer = new ArrayList<>();
+        List<Question> seen = new ArrayList<>();
+        for (Question question : candidates) {
+            long hash = hash(question);
+            if (!distinct.add(hash)) {
+                continue;
+            }
+            if (mine != null && mine.contains(hash)) {
+                seen.add(question);
+            } else if (global.contains(hash)) {
+                newToPlayer.add(question);
+            } else {
+                fresh.add(question);
+            }
+        }
+
+        List<Question> picked = new ArrayList<>(count);
+        for (List<Question> tier : List.of(fresh, newToPlayer, seen)) {
+            for (Question question : tier) {
+                if (picked.size() == count) {
+                    break;
+                }
+                picked.add(question);
+            }
+        }
+        return picked;
+    }
+
+    /**
+     * Counts the candidates the player has not seen yet.
+     *
+     * @param player The player
+     * @param candidates The questions to check
+     * @return The number of distinct candidates new to the player
+     */
+    public synchronized int countUnseen(String player, Collection<Question> candidates) {
+        LongHashSet mine = players.get(player);
+        LongHashSet distinct = new LongHashSet(candidates.size());
+        int unseen = 0;
+        for (Question question : candidates) {
+            long hash = hash(question);
+            if (distinct.add(hash) && (mine == null || !mine.contains(hash))) {
+                unseen++;
+            }
+        }
+        return unseen;
+    }
+
+    /**
+     * Checks whether a player has already seen a question.
+     *
+     * @param player The player
+     * @param question The question
+     * @return true if the question was asked to the player before
+     */
+    public synchronized boolean isSeen(String player, Question question) {
+        LongHashSet mine = players.get(player);
+        return mine != null && mine.contains(hash(question));
+    }
+
+    /**
+     * Marks questions as seen by a player.
+     *
+     * @param player The player
+     * @param questions The questions asked
+     */
+    public synchronized void markSeen(String player, Collection<Question> questions) {
+        for (Question question : questions) {
+            mark(player, hash(question));
+        }
+    }
+
+    /**
+     * Adds a question hash to the global set and the player's set.
+     */
+    private void mark(String player, long hash) {
+        global.add(hash);
+        players.computeIfAbsent(player, name -> new LongHashSet()).add(hash);
+        dirty = true;
+    }
+
+    /**
+     * Returns the number of distinct questions seen by anyone.
+     *
+     * @return The global seen count
+     */
+    public synchronized int size() {
+        return global.size();
+    }
+
+    /**
+     * Returns the number of distinct questions seen by a player.
+     *
+     * @param player The player
+     * @return The player's seen count
+     */
+    public synchronized int size(String player) {
+        LongHashSet mine = players.get(player);
+        return mine == null ? 0 : mine.size();
+    }
+
+    /**
+     * Writes the registry to its file if anything changed since the last save. The file is written
+     * to a temporary file first and then moved into place, so a crash never leaves a partial file.
+     * Saves run one at a time, but they do not keep other threads from using the registry while
+     * the file is written.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public void save() throws IOException {
+        synchronized (saveLock) {
+            long[] globalValues;
+            Map<String, long[]> playerValues = new LinkedHashMap<>();
+            synchronized (this) {
+                if (!dirty) {
+                    return;
+                }
+                globalValues = global.toArray();
+                for (Map.Entry<String, LongHashSet> entry : players.entrySet()) {
+                    playerValues.put(entry.getKey(), entry.getValue().toArray());
+                }
+                dirty = false;
+            }
+
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try {
+                if (file.getParent() != null) {
+                    Files.createDirectories(file.getParent());
+                }
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                    out.writeInt(MAGIC);
+                    writeValues(out, globalValues);
+                    out.writeInt(playerValues.size());
+                    for (Map.Entry<String, long[]> entry : playerValues.entrySet()) {
+                        out.writeUTF(entry.getKey());
+                        writeValues(out, entry.getValue());
+                    }
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                synchronized (this) {
+                    dirty = true;
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Reads the registry file.
+     */
+    private void load() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a seen-question file");
+            }
+            readValues(in, global);
+            int playerCount = in.readInt();
+            for (int i = 0; i < playerCount; i++) {
+                String player = in.readUTF();
+                LongHashSet set = new LongHashSet();
+                readValues(in, set);
+                players.put(player, set);
+            }
+        }
+    }
+
+    private static void writeValues(DataOutputStream out, long[] values) throws IOException {
+        out.writeInt(values.length);
+        for (long value : values) {
+            out.writeLong(value);
+        }
+    }
+
+    private static void readValues(DataInputStream in, LongHashSet into) throws IOException {
+        int count = in.readInt();
+        into.ensureCapacity(count);
+        for (int i = 0; i < count; i++) {
+            into.add(in.readLong());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package trv.triviaapp.store;
+
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import trv.triviaapp.api.QuestionSource;
+import trv.triviaapp.model.QuestionSet;
+
+/**
+ * A question source that saves everything fetched from a remote source to a {@link QuestionStore}
+ * and falls back to the store when the remote source fails.
+ * <p>
+ * Games are served from the store when the remote source is unreachable, when it answers with a
+ * non-zero response code (e.g. 5 when rate-limited), or always when offline mode is enabled.
+ */
+public class StoreBackedSource implements QuestionSource {
+    private static final Logger LOG = Logger.getLogger(StoreBackedSource.class.getName());
+
+    private final QuestionSource remote;
+    private final QuestionStore store;
+    private final boolean offline;
+
+    /**
+     * Creates a source in front of the given remote source and store.
+     *
+     * @param remote The source of fresh questions, typically the Trivia API
+     * @param store The local store, or null to disable persistence and fallback
+     * @param offline true to serve every game from the store while it has questions
+     */
+    public StoreBackedSource(QuestionSource remote, QuestionStore store, boolean offline) {
+        this.remote = remote;
+        this.store = store;
+        this.offline = offline;
+    }
+
+    /**
+     * Fetches from the remote source, persisting the result, or serves a game from the store.
+     *
+     * @return The fetched or stored question set
+     * @throws IOException if the remote source fails and the store cannot serve a game either
+     */
+    @Override
+    public QuestionSet fetch() throws IOException {
+        if (offline && hasStoredQuestions()) {
+            return store.fetch();
+        }
+        QuestionSet fetched;
+        try {
+            fetched = remote.fetch();
+        } catch (IOException e) {
+            if (!hasStoredQuestions()) {
+                throw e;
+            }
+            LOG.log(Level.INFO, "Trivia API unavailable ({0}), serving from the question store", e.getMessage());
+            return store.fetch();
+        }
+
+        if (fetched != null && fetched.getResponseCode() == 0) {
+            persist(fetched);
+        } else if (hasStoredQuestions()) {
+            LOG.log(Level.INFO, "Trivia API answered response code {0}, serving from the question store",
+                    fetched == null ? "none" : fetched.getResponseCode());
+            return store.fetch();
+        }
+        return fetched;
+    }
+
+    /**
+     * Checks whether the local store is available and can serve a game.
+     *
+     * @return true if there are stored questions
+     */
+    private boolean hasStoredQuestions() {
+        return store != null && store.size() > 0;
+    }
+
+    /**
+     * Saves freshly fetched questions to the local store. Failures are reported but not fatal.
+     *
+     * @param fetched The question set returned by the remote source
+     */
+    private void persist(QuestionSet fetched) {
+        if (store == null) {
+            return;
+        }
+        try {
+            store.append(fetched.getQuestions());
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Could not save questions", e);
+        }
+    }
+}
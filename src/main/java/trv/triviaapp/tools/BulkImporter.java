@@ -0,0 +1,249 @@
+package trv.triviaapp.tools;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import trv.triviaapp.api.QuestionSetReader;
+import trv.triviaapp.model.Question;
+import trv.triviaapp.store.QuestionStore;
+
+/**
+ * Loads large JSON dumps of questions into a {@link QuestionStore}.
+ * <p>
+ * A dump is either a JSON array of questions or an object with a {@code "results"} array, in the
+ * same shape as a Trivia API response. One thread streams the file and cuts it into chunks of raw
+ * records; the chunks are parsed, HTML-decoded and validated in parallel on a fork-join pool, and
+ * appended to the store in file order. At most a few chunks per worker are in flight, so memory
+ * use does not depend on the size of the file.
+ * <p>
+ * Usage:
+ * <pre>
+ * java -cp TriviaTime!-jar-with-dependencies.jar trv.triviaapp.tools.BulkImporter DUMP.json
+ *     [--store PATH] [--chunk 1000] [--parallelism N]
+ * </pre>
+ */
+public class BulkImporter {
+    private static final Logger LOG = Logger.getLogger(BulkImporter.class.getName());
+    /** Number of records parsed by one task. */
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+    /** Chunks in flight per worker thread, which bounds memory use. */
+    private static final int CHUNKS_PER_WORKER = 2;
+    /** Number of records between two progress messages. */
+    private static final long PROGRESS_INTERVAL = 100_000;
+    private static final Set<String> DIFFICULTIES = Set.of("easy", "medium", "hard");
+
+    private final QuestionStore store;
+    private final int chunkSize;
+    private final ForkJoinPool pool;
+
+    /**
+     * The outcome of one import.
+     *
+     * @param records The number of records read from the file
+     * @param imported The number of new questions written to the store
+     * @param duplicates The number of valid questions that were already stored
+     * @param rejected The number of records that were malformed or failed validation
+     * @param nanos The time the import took
+     */
+    public record Report(long records, long imported, long duplicates, long rejected, long nanos) {
+
+        /**
+         * Returns the import throughput.
+         *
+         * @return The number of records processed per second
+         */
+        public double recordsPerSecond() {
+            return nanos == 0 ? 0 : records * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d records in %.2fs (%.0f records/s): %d imported, %d duplicates, %d rejected",
+                    records, nanos / 1e9, recordsPerSecond(), imported, duplicates, rejected);
+        }
+    }
+
+    /**
+     * The questions parsed from one chunk.
+     */
+    private record ParsedChunk(List<Question> valid, int rejected) {
+    }
+
+    /**
+     * Creates an importer.
+     *
+     * @param store The store that receives the questions
+     * @param chunkSize The number of records parsed by one task
+     * @param pool The pool that parses chunks
+     */
+    public BulkImporter(QuestionStore store, int chunkSize, ForkJoinPool pool) {
+        this.store = store;
+        this.chunkSize = chunkSize;
+        this.pool = pool;
+    }
+
+    /**
+     * Imports a dump file.
+     *
+     * @param file The JSON dump, encoded in UTF-8
+     * @return What was imported
+     * @throws IOException if the file cannot be read, is not a JSON array of records, or the store
+     *         cannot be written
+     */
+    public Report importFile(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importFrom(reader);
+        }
+    }
+
+    /**
+     * Imports a dump from a character stream. The stream is not closed.
+     *
+     * @param reader The JSON dump
+     * @return What was imported
+     * @throws IOException if the stream cannot be read, is not a JSON array of records, or the store
+     *         cannot be written
+     */
+    public Report importFrom(Reader reader) throws IOException {
+        long start = System.nanoTime();
+        long[] totals = new long[4]; // records, imported, duplicates, rejected
+        int maxInFlight = Math.max(2, pool.getParallelism() * CHUNKS_PER_WORKER);
+        Deque<ForkJoinTask<ParsedChunk>> inFlight = new ArrayDeque<>(maxInFlight);
+
+        JsonRecordScanner scanner = new JsonRecordScanner(reader);
+        scanner.enterArray();
+        List<String> chunk = new ArrayList<>(chunkSize);
+        String record;
+        while ((record = scanner.next()) != null) {
+            chunk.add(record);
+            if (chunk.size() == chunkSize) {
+                if (inFlight.size() == maxInFlight) {
+                    load(inFlight.removeFirst().join(), totals);
+                }
+                List<String> records = chunk;
+                inFlight.addLast(pool.submit(() -> parse(records)));
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            List<String> records = chunk;
+            inFlight.addLast(pool.submit(() -> parse(records)));
+        }
+        while (!inFlight.isEmpty()) {
+            load(inFlight.removeFirst().join(), totals);
+        }
+        return new Report(totals[0], totals[1], totals[2], totals[3], System.nanoTime() - start);
+    }
+
+    /**
+     * Appends a parsed chunk to the store and adds it to the totals.
+     */
+    private void load(ParsedChunk parsed, long[] totals) throws IOException {
+        int imported = store.append(parsed.valid());
+        long before = totals[0];
+        totals[0] += parsed.valid().size() + parsed.rejected();
+        totals[1] += imported;
+        totals[2] += parsed.valid().size() - imported;
+        totals[3] += parsed.rejected();
+        if (totals[0] / PROGRESS_INTERVAL != before / PROGRESS_INTERVAL) {
+            LOG.log(Level.INFO, "Imported {0} of {1} records so far", new Object[]{totals[1], totals[0]});
+        }
+    }
+
+    /**
+     * Decodes and validates the records of one chunk. Runs on the fork-join pool. A record that cannot
+     * be decoded is counted as rejected, so one bad record never aborts the import.
+     */
+    private static ParsedChunk parse(List<String> records) {
+        List<Question> valid = new ArrayList<>(records.size());
+        int rejected = 0;
+        for (String record : records) {
+            try {
+                Question question = QuestionSetReader.readQuestion(record);
+                String problem = validate(question);
+                if (problem == null) {
+                    valid.add(question);
+                } else {
+                    rejected++;
+                    LOG.log(Level.FINE, "Rejected question \"{0}\": {1}", new Object[]{question.getQuestion(), problem});
+                }
+            } catch (IOException | RuntimeException e) {
+                rejected++;
+                LOG.log(Level.FINE, "Rejected record: {0}", e.getMessage());
+            }
+        }
+        return new ParsedChunk(valid, rejected);
+    }
+
+    /**
+     * Checks that a decoded question can be played.
+     *
+     * @param question The question to check
+     * @return null if the question is valid, otherwise the reason it is not
+     */
+    static String validate(Question question) {
+        if (question.getQuestion().isBlank() || question.getCorrectAnsw().isBlank()) {
+            return "empty question or answer";
+        }
+        if (question.getCategory() == null || question.getCategory().isBlank()) {
+            return "no category";
+        }
+        if (question.getDifficulty() == null || !DIFFICULTIES.contains(question.getDifficulty())) {
+            return "unknown difficulty " + question.getDifficulty();
+        }
+        List<String> incorrect = question.getIncorrectAnsw();
+        return switch (question.getType()) {
+            case "multiple" -> incorrect.size() == 3 && !incorrect.contains(question.getCorrectAnsw())
+                    ? null : "a multiple-choice question needs 3 other answers";
+            case "boolean" -> incorrect.size() == 1
+                    && (question.getCorrectAnsw().equals("True") || question.getCorrectAnsw().equals("False"))
+                    ? null : "a true/false question needs True or False";
+            default -> "unknown type " + question.getType();
+        };
+    }
+
+    /**
+     * Runs an import from the command line and prints its report.
+     *
+     * @param args The dump file, followed by the options described in the class documentation
+     * @throws IOException if the dump or the store cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: BulkImporter DUMP.json [--store PATH] [--chunk 1000] [--parallelism N]");
+            System.exit(2);
+        }
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            options.put(args[i], args[i + 1]);
+        }
+        Path store = options.containsKey("--store") ? Path.of(options.get("--store")) : QuestionStore.defaultPath();
+        int parallelism = Integer.parseInt(options.getOrDefault("--parallelism",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        int chunkSize = Integer.parseInt(options.getOrDefault("--chunk", String.valueOf(DEFAULT_CHUNK_SIZE)));
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        QuestionStore target = new QuestionStore(store);
+        try {
+            Report report = new BulkImporter(target, chunkSize, pool).importFile(Path.of(args[0]));
+            System.out.println(report);
+            System.out.println("Store " + store + " now holds " + target.size() + " questions");
+        } finally {
+            target.close();
+            pool.shutdown();
+        }
+    }
+}
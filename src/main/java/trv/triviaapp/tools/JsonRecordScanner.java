@@ -0,0 +1,212 @@
+package trv.triviaapp.tools;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Cuts a large JSON array into the raw text of its elements without parsing them.
+ * <p>
+ * The scanner only tracks strings, escapes and nesting depth, which is much cheaper than full
+ * tokenizing, so one thread can feed several parsers. The array is either the whole document or
+ * the {@code "results"} array of a top-level object, as in a Trivia API response. Only one element
+ * is held in memory at a time.
+ */
+class JsonRecordScanner {
+    private final Reader in;
+    private final char[] buffer = new char[1 << 16];
+    private int position;
+    private int limit;
+
+    /**
+     * Creates a scanner over a character stream. The stream is not closed by the scanner.
+     *
+     * @param in The JSON document
+     */
+    JsonRecordScanner(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Moves into the array of records: the top-level array, or the {@code "results"} array of the
+     * top-level object.
+     *
+     * @throws IOException if the document has no such array or cannot be read
+     */
+    void enterArray() throws IOException {
+        char c = nextNonSpace();
+        if (c == '[') {
+            return;
+        }
+        if (c != '{') {
+            throw new IOException("Expected a JSON array or object but found '" + c + "'");
+        }
+        while (true) {
+            c = nextNonSpace();
+            if (c == '}') {
+                throw new IOException("The JSON object has no \"results\" array");
+            }
+            if (c == ',') {
+                continue;
+            }
+            if (c != '"') {
+                throw new IOException("Expected a field name but found '" + c + "'");
+            }
+            StringBuilder name = new StringBuilder();
+            readString(name);
+            if (nextNonSpace() != ':') {
+                throw new IOException("Expected ':' after \"" + name + "\"");
+            }
+            c = nextNonSpace();
+            if (name.toString().equals("results") && c == '[') {
+                return;
+            }
+            readValue(c, null);
+        }
+    }
+
+    /**
+     * Returns the raw text of the next element of the array.
+     *
+     * @return The element, or null once the end of the array is reached
+     * @throws IOException if the document ends early or cannot be read
+     */
+    String next() throws IOException {
+        char c = nextNonSpace();
+        if (c == ',') {
+            c = nextNonSpace();
+        }
+        if (c == ']') {
+            return null;
+        }
+        StringBuilder element = new StringBuilder(512);
+        readValue(c, element);
+        return element.toString();
+    }
+
+    /**
+     * Reads one value whose first character was already consumed.
+     *
+     * @param first The first character of the value
+     * @param into Receives the text of the value, or null to skip it
+     */
+    private void readValue(char first, StringBuilder into) throws IOException {
+        append(into, first);
+        if (first == '"') {
+            readString(into);
+            if (into != null) {
+                into.append('"');
+            }
+            return;
+        }
+        if (first != '{' && first != '[') {
+            // A number, true, false or null: runs until the next delimiter
+            while (fill() && ",}] \t\r\n".indexOf(buffer[position]) < 0) {
+                append(into, buffer[position++]);
+            }
+            return;
+        }
+        // Containers are copied in runs straight from the buffer rather than one char at a time
+        int depth = 1;
+        boolean inString = false;
+        boolean escaped = false;
+        while (depth > 0) {
+            if (!fill()) {
+                throw new EOFException("Unexpected end of the JSON document");
+            }
+            int start = position;
+            while (position < limit && depth > 0) {
+                char c = buffer[position++];
+                if (inString) {
+                    if (escaped) {
+                        escaped = false;
+                    } else if (c == '\\') {
+                        escaped = true;
+                    } else if (c == '"') {
+                        inString = false;
+                    }
+                } else if (c == '"') {
+                    inString = true;
+                } else if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                }
+            }
+            if (into != null) {
+                into.append(buffer, start, position - start);
+            }
+        }
+    }
+
+    /**
+     * Reads the rest of a string whose opening quote was already consumed, up to and including
+     * the closing quote. The closing quote is not appended.
+     */
+    private void readString(StringBuilder into) throws IOException {
+        boolean escaped = false;
+        while (true) {
+            if (!fill()) {
+                throw new EOFException("Unexpected end of the JSON document");
+            }
+            int start = position;
+            while (position < limit) {
+                char c = buffer[position];
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    if (into != null) {
+                        into.append(buffer, start, position - start);
+                    }
+                    position++;
+                    return;
+                }
+                position++;
+            }
+            if (into != null) {
+                into.append(buffer, start, position - start);
+            }
+        }
+    }
+
+    private static void append(StringBuilder into, char c) {
+        if (into != null) {
+            into.append(c);
+        }
+    }
+
+    private char nextNonSpace() throws IOException {
+        char c;
+        do {
+            c = nextChar();
+        } while (c == ' ' || c == '\t' || c == '\r' || c == '\n');
+        return c;
+    }
+
+    private char nextChar() throws IOException {
+        if (!fill()) {
+            throw new EOFException("Unexpected end of the JSON document");
+        }
+        return buffer[position++];
+    }
+
+    /**
+     * Makes sure at least one character is buffered.
+     *
+     * @return false at the end of the stream
+     */
+    private boolean fill() throws IOException {
+        if (position < limit) {
+            return true;
+        }
+        int read = in.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+}
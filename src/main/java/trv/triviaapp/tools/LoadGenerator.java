@@ -0,0 +1,215 @@
+package trv.triviaapp.tools;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import trv.triviaapp.api.QuestionSetReader;
+import trv.triviaapp.engine.GameSession;
+import trv.triviaapp.metrics.LatencyHistogram;
+import trv.triviaapp.model.AnswerOptions;
+import trv.triviaapp.model.Question;
+import trv.triviaapp.store.QuestionStore;
+
+/**
+ * Drives simulated players through the game loop to find out how many concurrent games one node sustains.
+ * <p>
+ * Every player runs on its own virtual thread and plays games back to back against the
+ * {@link GameSession} engine: start a game, then for every question read it, think, and answer.
+ * At the end the tool reports throughput and p50/p99/p99.9 latency per operation, together with
+ * heap usage and garbage collection activity during the run.
+ * <p>
+ * Run it with:
+ * <pre>
+ * java -cp TriviaTime!-jar-with-dependencies.jar trv.triviaapp.tools.LoadGenerator \
+ *     [--players 10000] [--duration 30] [--think-ms 100] [--game-size 10] [--store PATH]
+ * </pre>
+ * Questions come from the given question store, or from the stub's synthetic set otherwise.
+ */
+public class LoadGenerator {
+    private final List<Question> bank;
+    private final int players;
+    private final long durationNanos;
+    private final long thinkMillis;
+    private final int gameSize;
+
+    private final LatencyHistogram startLatency = new LatencyHistogram();
+    private final LatencyHistogram questionLatency = new LatencyHistogram();
+    private final LatencyHistogram answerLatency = new LatencyHistogram();
+    private final LongAdder games = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * Creates a load generator.
+     *
+     * @param bank The questions games are drawn from
+     * @param players The number of simulated players
+     * @param duration How long the players keep playing
+     * @param unit The unit of {@code duration}
+     * @param thinkMillis The mean time a player thinks before answering, in milliseconds
+     * @param gameSize The number of questions per game
+     */
+    public LoadGenerator(List<Question> bank, int players, long duration, TimeUnit unit, long thinkMillis, int gameSize) {
+        if (bank.isEmpty()) {
+            throw new IllegalArgumentException("The question bank is empty");
+        }
+        this.bank = List.copyOf(bank);
+        this.players = players;
+        this.durationNanos = unit.toNanos(duration);
+        this.thinkMillis = thinkMillis;
+        this.gameSize = Math.min(gameSize, bank.size());
+    }
+
+    /**
+     * Runs all players until the duration has passed and prints the report.
+     *
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the players
+     */
+    public void run() throws InterruptedException {
+        Map<String, long[]> gcBefore = gcTotals();
+        long start = System.nanoTime();
+        long deadline = start + durationNanos;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < players; i++) {
+                executor.execute(() -> play(deadline));
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        report(elapsed, gcBefore);
+    }
+
+    /**
+     * The loop of one simulated player.
+     *
+     * @param deadline The System.nanoTime() value at which the player stops
+     */
+    private void play(long deadline) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+            // Spread the first games over one think time so the players do not start in lockstep
+            think(random);
+            while (System.nanoTime() < deadline) {
+                long t0 = System.nanoTime();
+                GameSession session = new GameSession(draw(random));
+                session.start();
+                startLatency.recordSince(t0);
+
+                while (!session.isFinished() && System.nanoTime() < deadline) {
+                    long t1 = System.nanoTime();
+                    Question question = session.getCurrentQuestion();
+                    AnswerOptions options = session.getCurrentOptions();
+                    questionLatency.recordSince(t1);
+                    if (question == null || options == null) {
+                        break;
+                    }
+
+                    think(random);
+
+                    long t2 = System.nanoTime();
+                    session.submitAnswer(random.nextInt(options.size()));
+                    session.advance();
+                    answerLatency.recordSince(t2);
+                }
+                if (session.isFinished()) {
+                    games.increment();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            failures.increment();
+        }
+    }
+
+    private void think(ThreadLocalRandom random) throws InterruptedException {
+        if (thinkMillis > 0) {
+            Thread.sleep(random.nextLong(thinkMillis * 2 + 1));
+        }
+    }
+
+    private List<Question> draw(ThreadLocalRandom random) {
+        int size = bank.size();
+        List<Question> picked = new ArrayList<>(gameSize);
+        int offset = random.nextInt(size);
+        for (int i = 0; i < gameSize; i++) {
+            picked.add(bank.get((offset + i) % size));
+        }
+        Collections.shuffle(picked, random);
+        return picked;
+    }
+
+    /**
+     * Prints throughput, latency, heap and GC figures.
+     */
+    private void report(long elapsedNanos, Map<String, long[]> gcBefore) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("Players: %d, duration: %.1fs, think time: %dms, games completed: %d, failures: %d%n",
+                players, seconds, thinkMillis, games.sum(), failures.sum());
+        System.out.printf("Throughput: %.0f games/s, %.0f answers/s%n",
+                games.sum() / seconds, answerLatency.getCount() / seconds);
+        System.out.println("start game:    " + startLatency.summary());
+        System.out.println("next question: " + questionLatency.summary());
+        System.out.println("submit answer: " + answerLatency.summary());
+
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        System.out.printf("Heap: used %d MB, committed %d MB, max %d MB%n",
+                heap.getUsed() >> 20, heap.getCommitted() >> 20, heap.getMax() >> 20);
+        Map<String, long[]> gcAfter = gcTotals();
+        for (Map.Entry<String, long[]> entry : gcAfter.entrySet()) {
+            long[] before = gcBefore.getOrDefault(entry.getKey(), new long[2]);
+            System.out.printf("GC %s: %d collections, %d ms%n", entry.getKey(),
+                    entry.getValue()[0] - before[0], entry.getValue()[1] - before[1]);
+        }
+    }
+
+    private static Map<String, long[]> gcTotals() {
+        Map<String, long[]> totals = new HashMap<>();
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            totals.put(gc.getName(), new long[]{gc.getCollectionCount(), gc.getCollectionTime()});
+        }
+        return totals;
+    }
+
+    /**
+     * Runs the load generator from the command line.
+     *
+     * @param args The options described in the class documentation
+     * @throws IOException if the question store cannot be read
+     * @throws InterruptedException if interrupted while the players run
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i], args[i + 1]);
+        }
+
+        List<Question> bank;
+        if (options.containsKey("--store")) {
+            QuestionStore store = new QuestionStore(Path.of(options.get("--store")));
+            bank = store.snapshot();
+            store.close();
+        } else {
+            String json = "{\"response_code\":0,\"results\":" + StubTriviaServer.syntheticQuestions(1000) + "}";
+            bank = QuestionSetReader.read(json).getQuestions();
+        }
+
+        new LoadGenerator(bank,
+                Integer.parseInt(options.getOrDefault("--players", "10000")),
+                Long.parseLong(options.getOrDefault("--duration", "30")), TimeUnit.SECONDS,
+                Long.parseLong(options.getOrDefault("--think-ms", "100")),
+                Integer.parseInt(options.getOrDefault("--game-size", "10"))).run();
+    }
+}
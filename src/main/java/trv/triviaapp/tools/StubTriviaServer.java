@@ -0,0 +1,423 @@
+package trv.triviaapp.tools;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * A local stand-in for the OpenTDB API, for deterministic tests and benchmarks without a network.
+ * <p>
+ * It answers {@code /api.php?amount=N[&token=T]} and {@code /api_token.php?command=request|reset}
+ * in OpenTDB's format. Questions are replayed from recorded response files, or generated if none are
+ * given. Latency, HTTP errors, rate limiting ({@code response_code} 5) and the maximum batch size
+ * can be configured; point the application at it with {@code -Dtrivia.api.url=http://localhost:PORT}.
+ * <p>
+ * Run it on its own with:
+ * <pre>
+ * java -cp TriviaTime!-jar-with-dependencies.jar trv.triviaapp.tools.StubTriviaServer \
+ *     [--port 8089] [--payloads DIR_OR_FILE] [--latency MS] [--jitter MS] [--error-rate 0..1]
+ *     [--throttle-interval MS] [--max-amount N] [--synthetic N]
+ * </pre>
+ */
+public class StubTriviaServer {
+    private static final Logger LOG = Logger.getLogger(StubTriviaServer.class.getName());
+    private static final Gson GSON = new Gson();
+
+    private final HttpServer http;
+    private final List<JsonObject> questions;
+    private final Set<String> tokens = ConcurrentHashMap.newKeySet();
+    private final Map<String, Integer> tokenCursors = new ConcurrentHashMap<>();
+    private final AtomicLong lastServed = new AtomicLong(System.nanoTime() - TimeUnit.HOURS.toNanos(1));
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private volatile long latencyMillis;
+    private volatile long jitterMillis;
+    private volatile double errorRate;
+    private volatile long throttleIntervalNanos;
+    private volatile int maxAmount = 50;
+
+    /**
+     * Creates a stub bound to the given port. Call {@link #start()} to accept requests.
+     *
+     * @param port The port to listen on, or 0 for any free port
+     * @param questions The questions to replay, as OpenTDB JSON objects
+     * @throws IOException if the port cannot be bound
+     */
+    public StubTriviaServer(int port, List<JsonObject> questions) throws IOException {
+        if (questions.isEmpty()) {
+            throw new IllegalArgumentException("The stub needs at least one question");
+        }
+        this.questions = List.copyOf(questions);
+        // Without TCP_NODELAY, small responses wait on delayed ACKs for tens of milliseconds
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        this.http = HttpServer.create(new InetSocketAddress("localhost", port), 1024);
+        http.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        http.createContext("/api.php", this::handleQuestions);
+        http.createContext("/api_token.php", this::handleToken);
+    }
+
+    /**
+     * Reads the questions of recorded OpenTDB responses.
+     *
+     * @param path A response file, or a directory whose *.json files are all read
+     * @return The recorded questions, in file order
+     * @throws IOException if a file cannot be read or is not an OpenTDB response
+     */
+    public static List<JsonObject> loadRecordings(Path path) throws IOException {
+        List<Path> files;
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> listing = Files.list(path)) {
+                files = listing.filter(file -> file.toString().endsWith(".json")).sorted().toList();
+            }
+        } else {
+            files = List.of(path);
+        }
+        List<JsonObject> loaded = new ArrayList<>();
+        for (Path file : files) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                JsonElement results = JsonParser.parseReader(reader).getAsJsonObject().get("results");
+                if (results == null || !results.isJsonArray()) {
+                    throw new IOException(file + " is not an OpenTDB response");
+                }
+                for (JsonElement question : results.getAsJsonArray()) {
+                    loaded.add(question.getAsJsonObject());
+                }
+            } catch (RuntimeException e) {
+                throw new IOException("Could not read " + file + ": " + e.getMessage(), e);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Generates questions with a fixed seed, mixing types and HTML entities like the real API.
+     *
+     * @param count The number of questions to generate
+     * @return The generated questions
+     */
+    public static List<JsonObject> syntheticQuestions(int count) {
+        String[] categories = {"General Knowledge", "Science &amp; Nature", "History", "Geography",
+            "Entertainment: Film", "Sports"};
+        String[] difficulties = {"easy", "medium", "hard"};
+        List<JsonObject> generated = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            JsonObject question = new JsonObject();
+            boolean multiple = i % 4 != 3;
+            question.addProperty("type", multiple ? "multiple" : "boolean");
+            question.addProperty("difficulty", difficulties[i % difficulties.length]);
+            question.addProperty("category", categories[i % categories.length]);
+            question.addProperty("question", "Stub question #" + i + ": what is &quot;answer&quot; number " + i + "?");
+            JsonArray incorrect = new JsonArray();
+            if (multiple) {
+                question.addProperty("correct_answer", "Answer &#039;" + i + "&#039;");
+                for (int k = 1; k <= 3; k++) {
+                    incorrect.add("Wrong &amp; " + i + "." + k);
+                }
+            } else {
+                question.addProperty("correct_answer", i % 2 == 0 ? "True" : "False");
+                incorrect.add(i % 2 == 0 ? "False" : "True");
+            }
+            question.add("incorrect_answers", incorrect);
+            generated.add(question);
+        }
+        return generated;
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        http.start();
+    }
+
+    /**
+     * Stops the stub immediately.
+     */
+    public void stop() {
+        http.stop(0);
+    }
+
+    /**
+     * Returns the port the stub is bound to.
+     *
+     * @return The local port
+     */
+    public int getPort() {
+        return http.getAddress().getPort();
+    }
+
+    /**
+     * Returns the base URL to hand to {@code TriviaApi}.
+     *
+     * @return The base URL, e.g. "http://localhost:8089"
+     */
+    public String getBaseUrl() {
+        return "http://localhost:" + getPort();
+    }
+
+    /**
+     * Sets a delay added to every response.
+     *
+     * @param latencyMillis The fixed part of the delay, in milliseconds
+     * @param jitterMillis The maximum random extra delay, in milliseconds
+     */
+    public void setLatency(long latencyMillis, long jitterMillis) {
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+    }
+
+    /**
+     * Sets the share of question requests that fail with HTTP 500.
+     *
+     * @param errorRate A probability between 0 and 1
+     */
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    /**
+     * Sets the minimum time between two question requests; faster requests get response code 5,
+     * as OpenTDB does. Zero disables throttling.
+     *
+     * @param interval The minimum interval
+     * @param unit The unit of {@code interval}
+     */
+    public void setThrottleInterval(long interval, TimeUnit unit) {
+        this.throttleIntervalNanos = unit.toNanos(interval);
+    }
+
+    /**
+     * Sets the largest amount accepted in one request; larger amounts get response code 2.
+     * OpenTDB accepts up to 50, higher values let large batches be tested.
+     *
+     * @param maxAmount The maximum amount
+     */
+    public void setMaxAmount(int maxAmount) {
+        this.maxAmount = maxAmount;
+    }
+
+    /**
+     * Returns the number of question requests received.
+     *
+     * @return The request count
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * Returns the number of question requests answered with response code 5.
+     *
+     * @return The throttled request count
+     */
+    public long getThrottled() {
+        return throttled.get();
+    }
+
+    /**
+     * Returns the number of question requests answered with HTTP 500.
+     *
+     * @return The error count
+     */
+    public long getErrors() {
+        return errors.get();
+    }
+
+    /**
+     * Answers {@code /api.php}.
+     */
+    private void handleQuestions(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.incrementAndGet();
+            delay();
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                errors.incrementAndGet();
+                send(exchange, 500, "{\"error\":\"injected failure\"}");
+                return;
+            }
+            if (!admit()) {
+                throttled.incrementAndGet();
+                send(exchange, 429, response(5, null));
+                return;
+            }
+
+            Map<String, String> query = query(exchange);
+            int amount;
+            try {
+                amount = Integer.parseInt(query.getOrDefault("amount", "10"));
+            } catch (NumberFormatException e) {
+                amount = -1;
+            }
+            if (amount < 1 || amount > maxAmount) {
+                send(exchange, 200, response(2, null));
+                return;
+            }
+
+            String token = query.get("token");
+            int start = 0;
+            if (token != null) {
+                if (!tokens.contains(token)) {
+                    send(exchange, 200, response(3, null));
+                    return;
+                }
+                start = tokenCursors.getOrDefault(token, 0);
+                if (start + amount > questions.size()) {
+                    // Like OpenTDB: "no results" while some questions are left, "token empty" once none are
+                    send(exchange, 200, response(start < questions.size() ? 1 : 4, null));
+                    return;
+                }
+                tokenCursors.put(token, start + amount);
+            } else {
+                start = ThreadLocalRandom.current().nextInt(questions.size());
+            }
+
+            JsonArray results = new JsonArray(amount);
+            for (int i = 0; i < amount; i++) {
+                results.add(questions.get((start + i) % questions.size()));
+            }
+            send(exchange, 200, response(0, results));
+        } catch (RuntimeException e) {
+            LOG.log(Level.WARNING, "Stub request failed", e);
+        }
+    }
+
+    /**
+     * Answers {@code /api_token.php}.
+     */
+    private void handleToken(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            delay();
+            Map<String, String> query = query(exchange);
+            JsonObject body = new JsonObject();
+            switch (query.getOrDefault("command", "")) {
+                case "request" -> {
+                    String token = Long.toHexString(ThreadLocalRandom.current().nextLong());
+                    tokens.add(token);
+                    body.addProperty("response_code", 0);
+                    body.addProperty("token", token);
+                }
+                case "reset" -> {
+                    String token = query.get("token");
+                    if (token != null && tokens.contains(token)) {
+                        tokenCursors.remove(token);
+                        body.addProperty("response_code", 0);
+                        body.addProperty("token", token);
+                    } else {
+                        body.addProperty("response_code", 3);
+                    }
+                }
+                default -> body.addProperty("response_code", 2);
+            }
+            send(exchange, 200, GSON.toJson(body));
+        } catch (RuntimeException e) {
+            LOG.log(Level.WARNING, "Stub request failed", e);
+        }
+    }
+
+    /**
+     * Lets a request through unless one was served less than the throttle interval ago.
+     */
+    private boolean admit() {
+        long interval = throttleIntervalNanos;
+        if (interval <= 0) {
+            return true;
+        }
+        long now = System.nanoTime();
+        long last = lastServed.get();
+        return now - last >= interval && lastServed.compareAndSet(last, now);
+    }
+
+    private void delay() {
+        long millis = latencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0);
+        if (millis > 0) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static String response(int code, JsonArray results) {
+        JsonObject body = new JsonObject();
+        body.addProperty("response_code", code);
+        body.add("results", results != null ? results : new JsonArray());
+        return GSON.toJson(body);
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw != null) {
+            for (String pair : raw.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0) {
+                    params.put(pair.substring(0, eq), pair.substring(eq + 1));
+                }
+            }
+        }
+        return params;
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Starts a stub from the command line.
+     *
+     * @param args The options described in the class documentation
+     * @throws IOException if the payloads cannot be read or the port cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i], args[i + 1]);
+        }
+        List<JsonObject> questions = options.containsKey("--payloads")
+                ? loadRecordings(Path.of(options.get("--payloads")))
+                : syntheticQuestions(Integer.parseInt(options.getOrDefault("--synthetic", "500")));
+
+        StubTriviaServer stub = new StubTriviaServer(Integer.parseInt(options.getOrDefault("--port", "8089")), questions);
+        stub.setLatency(Long.parseLong(options.getOrDefault("--latency", "0")),
+                Long.parseLong(options.getOrDefault("--jitter", "0")));
+        stub.setErrorRate(Double.parseDouble(options.getOrDefault("--error-rate", "0")));
+        stub.setThrottleInterval(Long.parseLong(options.getOrDefault("--throttle-interval", "0")), TimeUnit.MILLISECONDS);
+        stub.setMaxAmount(Integer.parseInt(options.getOrDefault("--max-amount", "50")));
+        stub.start();
+        LOG.log(Level.INFO, "Stub Trivia API serving {0} questions at {1}",
+                new Object[]{questions.size(), stub.getBaseUrl()});
+    }
+}
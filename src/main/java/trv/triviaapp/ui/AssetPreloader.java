@@ -0,0 +1,93 @@
+package trv.triviaapp.ui;
+
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.Toolkit;
+import java.awt.font.FontRenderContext;
+import java.awt.font.TextLayout;
+import java.awt.image.BufferedImage;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import trv.triviaapp.metrics.LatencyHistogram;
+import trv.triviaapp.metrics.Metrics;
+
+/**
+ * Loads the fonts of the forms ahead of their first paint.
+ * <p>
+ * The forms ask for their fonts by family name, and resolving a family (including the fallback when
+ * it is not installed) and rasterizing its glyphs otherwise happens on the Event Dispatch Thread the
+ * first time a text is painted. {@link #start()} resolves every font the forms use and lays out and
+ * draws a sample text with each of them on a background thread, which fills the shared font and glyph caches.
+ */
+public final class AssetPreloader {
+    private static final Logger LOG = Logger.getLogger(AssetPreloader.class.getName());
+    /** Time spent resolving the fonts and warming their glyph caches. */
+    private static final LatencyHistogram PRELOAD_TIMER = Metrics.timer("ui.preload");
+    /** The fonts set on the forms' components, in the same styles and sizes. */
+    private static final Font[] FONTS = {
+        new Font("Henny Penny", Font.BOLD, 96),
+        new Font("Henny Penny", Font.PLAIN, 48),
+        new Font("Henny Penny", Font.PLAIN, 36),
+        new Font("Gill Sans MT", Font.PLAIN, 24),
+        new Font("Segoe UI", Font.PLAIN, 24),
+        new Font("Arial Rounded MT Bold", Font.PLAIN, 18),
+    };
+    /** Printable ASCII and the accented letters most often found in questions. */
+    private static final String SAMPLE = " !\"#$%&'()*+,-./0123456789:;<=>?@ABCDEFGHIJKLMNOPQRSTUVWXYZ[\\]^_`"
+            + "abcdefghijklmnopqrstuvwxyz{|}~ ¡¿ÀÁÂÄÅÇÈÉÊËÍÎÏÑÓÔÖØÚÜßàáâãäåçèéêëìíîïñòóôöøùúûüý–—‘’“”…";
+
+    private AssetPreloader() {
+    }
+
+    /**
+     * Starts warming the fonts on a background daemon thread.
+     *
+     * @return A future completed once every font has been warmed; it never completes exceptionally
+     */
+    public static CompletableFuture<Void> start() {
+        return CompletableFuture.runAsync(AssetPreloader::preload, task -> {
+            Thread thread = new Thread(task, "trivia-asset-preloader");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    /**
+     * Resolves each font and lays out and draws the sample text with it, using the desktop's text
+     * rendering hints so the same glyph caches are filled as for the components.
+     */
+    private static void preload() {
+        long start = System.nanoTime();
+        BufferedImage image = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            Object hints = GraphicsEnvironment.isHeadless() ? null
+                    : Toolkit.getDefaultToolkit().getDesktopProperty("awt.font.desktophints");
+            if (hints instanceof Map<?, ?> map) {
+                g.addRenderingHints(map);
+            } else {
+                g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            }
+            FontRenderContext context = g.getFontRenderContext();
+            for (Font font : FONTS) {
+                try {
+                    g.setFont(font);
+                    g.getFontMetrics().stringWidth(SAMPLE);
+                    new TextLayout(SAMPLE, font, context).getAdvance();
+                    g.drawString(SAMPLE, 0, 0);
+                    LOG.log(Level.FINER, "Warmed {0} as {1}", new Object[] {font.getName(), font.getFontName()});
+                } catch (RuntimeException e) {
+                    LOG.log(Level.FINE, "Could not warm font " + font.getName(), e);
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+        PRELOAD_TIMER.recordSince(start);
+        LOG.log(Level.FINE, "Fonts preloaded in {0} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -1,16 +1,24 @@
 package trv.triviaapp.ui;
 
-import java.io.IOException;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.awt.CardLayout;
+import java.awt.Cursor;
+import java.awt.GridBagLayout;
+import javax.swing.JComponent;
+import javax.swing.JPanel;
 import trv.triviaapp.controller.TriviaController;
 
 /**
  * The MainForm class represents the main user interface of the Trivia application.
  * It displays the main screen, allowing users to start a new game or exit the application.
+ * It is the only window of the game: the question panels are cards of its {@link CardLayout},
+ * so moving between the menu and the questions swaps cards instead of showing other windows.
  */
 public class MainForm extends javax.swing.JFrame {
+    /** Name of the card showing the main menu. */
+    public static final String MENU_CARD = "menu";
+
     private TriviaController controller;
+    private String currentCard = MENU_CARD;
 
     /**
      * Constructs a new MainForm.
@@ -22,7 +30,43 @@ public class MainForm extends javax.swing.JFrame {
         this.controller = controller;
         initComponents();
     }
+
+    /**
+     * Switches the form in and out of its loading state while a new game is being fetched.
+     * While loading, the 'Play' panel shows a progress message and a wait cursor.
+     * 
+     * @param loading true while questions are being loaded, false once they are ready
+     */
+    public void setLoading(boolean loading) {
+        jLabel2.setText(loading ? "Wait" : "Play");
+        panelPlay.setCursor(loading ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor());
+    }
     
+    /**
+     * Adds a view as a card of this window, centered on a background of its own color.
+     * 
+     * @param name The card name used with {@link #showCard(String)}
+     * @param view The view to add
+     */
+    public void addCard(String name, JComponent view) {
+        JPanel holder = new JPanel(new GridBagLayout());
+        holder.setBackground(view.getBackground());
+        holder.add(view);
+        getContentPane().add(holder, name);
+    }
+
+    /**
+     * Brings a card to the front. Showing the card already in front does nothing.
+     * 
+     * @param name The card name
+     */
+    public void showCard(String name) {
+        if (!name.equals(currentCard)) {
+            ((CardLayout) getContentPane().getLayout()).show(getContentPane(), name);
+            currentCard = name;
+        }
+    }
+
     /**
      * Initializes the form's components (buttons, labels, panels, etc.).
      * This method is automatically called during the construction of the form.
@@ -39,8 +83,10 @@ public class MainForm extends javax.swing.JFrame {
 
         setDefaultCloseOperation(javax.swing.WindowConstants.EXIT_ON_CLOSE);
         setResizable(false);
+        getContentPane().setLayout(new java.awt.CardLayout());
 
         jPanelBackground.setBackground(new java.awt.Color(129, 0, 127));
+        jPanelBackground.setPreferredSize(new java.awt.Dimension(800, 600));
         jPanelBackground.setLayout(new org.netbeans.lib.awtextra.AbsoluteLayout());
 
         jLabel1.setFont(new java.awt.Font("Henny Penny", 1, 96)); // NOI18N
@@ -88,16 +134,7 @@ public class MainForm extends javax.swing.JFrame {
         });
         jPanelBackground.add(lblExit, new org.netbeans.lib.awtextra.AbsoluteConstraints(360, 440, 70, 40));
 
-        javax.swing.GroupLayout layout = new javax.swing.GroupLayout(getContentPane());
-        getContentPane().setLayout(layout);
-        layout.setHorizontalGroup(
-            layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
-            .addComponent(jPanelBackground, javax.swing.GroupLayout.DEFAULT_SIZE, 800, Short.MAX_VALUE)
-        );
-        layout.setVerticalGroup(
-            layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
-            .addComponent(jPanelBackground, javax.swing.GroupLayout.Alignment.TRAILING, javax.swing.GroupLayout.DEFAULT_SIZE, 600, Short.MAX_VALUE)
-        );
+        getContentPane().add(jPanelBackground, "menu");
 
         pack();
     }// </editor-fold>//GEN-END:initComponents
@@ -115,11 +152,7 @@ public class MainForm extends javax.swing.JFrame {
      * Starts a new trivia game by invoking the controller's method to begin the game.
      */    
     private void panelPlayMouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_panelPlayMouseClicked
-        try {
-            controller.startNewGame();
-        } catch (IOException ex) {
-            Logger.getLogger(MainForm.class.getName()).log(Level.SEVERE, null, ex);
-        }
+        controller.startNewGame();
     }//GEN-LAST:event_panelPlayMouseClicked
 
     /**
@@ -1,15 +1,19 @@
 package trv.triviaapp.ui;
 
-import java.util.List;
-import javax.swing.SwingUtilities;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import trv.triviaapp.controller.TriviaController;
+import trv.triviaapp.model.AnswerOptions;
 import trv.triviaapp.model.Question;
 
 /**
- * This class represents the UI for a multiple-choice question form
- * in the trivia application.
+ * This class represents the UI for a multiple-choice question panel
+ * in the trivia application. The panel is built once and reused for every
+ * multiple-choice question.
  */
-public class MultipleChoiceForm extends javax.swing.JFrame {
+public class MultipleChoiceForm extends javax.swing.JPanel {
+
+    private static final Logger LOG = Logger.getLogger(MultipleChoiceForm.class.getName());
 
     /** Controller that handles logic for submitting answers. */
     private TriviaController controller;
@@ -25,15 +29,16 @@ public class MultipleChoiceForm extends javax.swing.JFrame {
     public MultipleChoiceForm(TriviaController controller) {
         this.controller = controller;
         initComponents();
-        this.setLocationRelativeTo(null);
     }
 
     /**
      * Sets the current question and updates the form UI.
      * 
      * @param question the question to display
+     * @param options the answers in the order they should be shown
      */
-    public void setQuestion(Question question) {
+    public void setQuestion(Question question, AnswerOptions options) {
+        LOG.log(Level.FINER, "Showing question: {0}", question.getQuestion());
         this.currentQuestion = question;
 
         resetOptions();
@@ -42,8 +47,6 @@ public class MultipleChoiceForm extends javax.swing.JFrame {
         txtQuestion.setText(question.getQuestion());
         txtQuestion.setEditable(false); 
 
-        List<String> options = question.shuffledAnswers();
-
         if (options.size() >= 4) {
             lblOption1.setText(options.get(0));
             lblOption2.setText(options.get(1));
@@ -54,8 +57,6 @@ public class MultipleChoiceForm extends javax.swing.JFrame {
         int [] data = controller.getData();
         lblCounter.setText((data[0]+1) + "/" + data[1]);
 
-        this.revalidate();
-        this.repaint();
     }
 
     /**
@@ -68,16 +69,6 @@ public class MultipleChoiceForm extends javax.swing.JFrame {
         lblOption4.setEnabled(true);
     }
 
-    /**
-     * Forces an update of the UI tree.
-     */
-    public void updateUI() {
-        SwingUtilities.updateComponentTreeUI(this);
-        this.invalidate();
-        this.validate();
-        this.repaint();
-    }
-
     /**
      * Disables all option labels to prevent further clicks.
      */
@@ -105,9 +96,7 @@ public class MultipleChoiceForm extends javax.swing.JFrame {
         lblOption1 = new javax.swing.JLabel();
         lblCounter = new javax.swing.JLabel();
 
-        setDefaultCloseOperation(javax.swing.WindowConstants.EXIT_ON_CLOSE);
         setBackground(new java.awt.Color(65, 0, 128));
-        setUndecorated(true);
 
         jPanelBackground.setBackground(new java.awt.Color(65, 0, 128));
         jPanelBackground.setLayout(new org.netbeans.lib.awtextra.AbsoluteLayout());
@@ -220,8 +209,8 @@ public class MultipleChoiceForm extends javax.swing.JFrame {
         lblCounter.setText("../..");
         jPanelBackground.add(lblCounter, new org.netbeans.lib.awtextra.AbsoluteConstraints(280, 10, 50, -1));
 
-        javax.swing.GroupLayout layout = new javax.swing.GroupLayout(getContentPane());
-        getContentPane().setLayout(layout);
+        javax.swing.GroupLayout layout = new javax.swing.GroupLayout(this);
+        this.setLayout(layout);
         layout.setHorizontalGroup(
             layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
             .addComponent(jPanelBackground, javax.swing.GroupLayout.PREFERRED_SIZE, 600, javax.swing.GroupLayout.PREFERRED_SIZE)
@@ -230,61 +219,30 @@ public class MultipleChoiceForm extends javax.swing.JFrame {
             layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
             .addComponent(jPanelBackground, javax.swing.GroupLayout.DEFAULT_SIZE, 400, Short.MAX_VALUE)
         );
-
-        pack();
     }// </editor-fold>//GEN-END:initComponents
     
     // Mouse click event handlers that send the selected answer to the controller
 
     private void lblOption2MouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_lblOption2MouseClicked
-        controller.submitAnswer(lblOption2.getText());
         disableAllOptions();
+        controller.submitAnswer(1);
     }//GEN-LAST:event_lblOption2MouseClicked
 
     private void lblOption1MouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_lblOption1MouseClicked
-        controller.submitAnswer(lblOption1.getText());
         disableAllOptions();
+        controller.submitAnswer(0);
     }//GEN-LAST:event_lblOption1MouseClicked
 
     private void lblOption4MouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_lblOption4MouseClicked
-        controller.submitAnswer(lblOption4.getText());
         disableAllOptions();
+        controller.submitAnswer(3);
     }//GEN-LAST:event_lblOption4MouseClicked
 
     private void lblOption3MouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_lblOption3MouseClicked
-        controller.submitAnswer(lblOption3.getText());
         disableAllOptions();
+        controller.submitAnswer(2);
     }//GEN-LAST:event_lblOption3MouseClicked
 
-    /**
-     * @param args the command line arguments
-     */
-    public static void main(String args[]) {
-        /* Set the Nimbus look and feel */
-        //<editor-fold defaultstate="collapsed" desc=" Look and feel setting code (optional) ">
-        /* If Nimbus (introduced in Java SE 6) is not available, stay with the default look and feel.
-         * For details see http://download.oracle.com/javase/tutorial/uiswing/lookandfeel/plaf.html 
-         */
-        try {
-            for (javax.swing.UIManager.LookAndFeelInfo info : javax.swing.UIManager.getInstalledLookAndFeels()) {
-                if ("Nimbus".equals(info.getName())) {
-                    javax.swing.UIManager.setLookAndFeel(info.getClassName());
-                    break;
-                }
-            }
-        } catch (ClassNotFoundException ex) {
-            java.util.logging.Logger.getLogger(MultipleChoiceForm.class.getName()).log(java.util.logging.Level.SEVERE, null, ex);
-        } catch (InstantiationException ex) {
-            java.util.logging.Logger.getLogger(MultipleChoiceForm.class.getName()).log(java.util.logging.Level.SEVERE, null, ex);
-        } catch (IllegalAccessException ex) {
-            java.util.logging.Logger.getLogger(MultipleChoiceForm.class.getName()).log(java.util.logging.Level.SEVERE, null, ex);
-        } catch (javax.swing.UnsupportedLookAndFeelException ex) {
-            java.util.logging.Logger.getLogger(MultipleChoiceForm.class.getName()).log(java.util.logging.Level.SEVERE, null, ex);
-        }
-        //</editor-fold>
-
-    }
-
     // Variables declaration - do not modify//GEN-BEGIN:variables
     private javax.swing.JPanel jPanelBackground;
     private javax.swing.JScrollPane jScrollPane1;
@@ -1,13 +1,17 @@
 package trv.triviaapp.ui;
 
-import javax.swing.SwingUtilities;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import trv.triviaapp.controller.TriviaController;
+import trv.triviaapp.model.AnswerOptions;
 import trv.triviaapp.model.Question;
 
 /**
- * GUI form for displaying true/false questions in a trivia game.
+ * GUI panel for displaying true/false questions in a trivia game.
+ * The panel is built once and reused for every true/false question.
  */
-public class TrueFalseForm extends javax.swing.JFrame {
+public class TrueFalseForm extends javax.swing.JPanel {
+    private static final Logger LOG = Logger.getLogger(TrueFalseForm.class.getName());
     private TriviaController controller;
     private Question currentQuestion;
     
@@ -18,14 +22,15 @@ public class TrueFalseForm extends javax.swing.JFrame {
     public TrueFalseForm(TriviaController controller) {
         this.controller = controller;
         initComponents();
-        this.setLocationRelativeTo(null); // Center the window
     }
 
     /**
      * Sets the current question to be displayed in the form.
      * @param question the question object containing the text.
+     * @param options the answers in display order, "True" first and "False" second.
      */
-    public void setQuestion(Question question) {
+    public void setQuestion(Question question, AnswerOptions options) {
+        LOG.log(Level.FINER, "Showing question: {0}", question.getQuestion());
         this.currentQuestion = question;
 
         resetOptions();
@@ -34,11 +39,12 @@ public class TrueFalseForm extends javax.swing.JFrame {
         txtQuestion.setText(question.getQuestion());
         txtQuestion.setEditable(false); // Prevent editing
 
+        lblOptionTrue.setText(options.get(0));
+        lblOptionFalse.setText(options.get(1));
+
         int [] data = controller.getData();
         lblCounter.setText((data[0]+1) + "/" + data[1]);        
         
-        this.revalidate();
-        this.repaint();
     }
 
     /**
@@ -49,16 +55,6 @@ public class TrueFalseForm extends javax.swing.JFrame {
         lblOptionTrue.setEnabled(true);
     }
 
-    /**
-     * Updates the UI components (useful after changing the look and feel).
-     */
-    public void updateUI() {
-        SwingUtilities.updateComponentTreeUI(this);
-        this.invalidate();
-        this.validate();
-        this.repaint();
-    }
-
     /**
      * Disables both true and false options to prevent further clicks.
      */
@@ -83,8 +79,7 @@ public class TrueFalseForm extends javax.swing.JFrame {
         lblOptionFalse = new javax.swing.JLabel();
         lblCounter = new javax.swing.JLabel();
 
-        setDefaultCloseOperation(javax.swing.WindowConstants.EXIT_ON_CLOSE);
-        setUndecorated(true);
+        setBackground(new java.awt.Color(65, 0, 128));
 
         jPanelBackground.setBackground(new java.awt.Color(65, 0, 128));
         jPanelBackground.setLayout(new org.netbeans.lib.awtextra.AbsoluteLayout());
@@ -149,8 +144,8 @@ public class TrueFalseForm extends javax.swing.JFrame {
         lblCounter.setText("../..");
         jPanelBackground.add(lblCounter, new org.netbeans.lib.awtextra.AbsoluteConstraints(280, 20, 50, -1));
 
-        javax.swing.GroupLayout layout = new javax.swing.GroupLayout(getContentPane());
-        getContentPane().setLayout(layout);
+        javax.swing.GroupLayout layout = new javax.swing.GroupLayout(this);
+        this.setLayout(layout);
         layout.setHorizontalGroup(
             layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
             .addComponent(jPanelBackground, javax.swing.GroupLayout.DEFAULT_SIZE, 600, Short.MAX_VALUE)
@@ -159,49 +154,18 @@ public class TrueFalseForm extends javax.swing.JFrame {
             layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
             .addComponent(jPanelBackground, javax.swing.GroupLayout.DEFAULT_SIZE, 400, Short.MAX_VALUE)
         );
-
-        pack();
     }// </editor-fold>//GEN-END:initComponents
 
     private void lblOptionTrueMouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_lblOptionTrueMouseClicked
-        controller.submitAnswer(lblOptionTrue.getText());
         disableAllOptions();
+        controller.submitAnswer(0);
     }//GEN-LAST:event_lblOptionTrueMouseClicked
 
     private void lblOptionFalseMouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_lblOptionFalseMouseClicked
-        controller.submitAnswer(lblOptionFalse.getText());
         disableAllOptions();
+        controller.submitAnswer(1);
     }//GEN-LAST:event_lblOptionFalseMouseClicked
 
-    /**
-     * @param args the command line arguments
-     */
-    public static void main(String args[]) {
-        /* Set the Nimbus look and feel */
-        //<editor-fold defaultstate="collapsed" desc=" Look and feel setting code (optional) ">
-        /* If Nimbus (introduced in Java SE 6) is not available, stay with the default look and feel.
-         * For details see http://download.oracle.com/javase/tutorial/uiswing/lookandfeel/plaf.html 
-         */
-        try {
-            for (javax.swing.UIManager.LookAndFeelInfo info : javax.swing.UIManager.getInstalledLookAndFeels()) {
-                if ("Nimbus".equals(info.getName())) {
-                    javax.swing.UIManager.setLookAndFeel(info.getClassName());
-                    break;
-                }
-            }
-        } catch (ClassNotFoundException ex) {
-            java.util.logging.Logger.getLogger(TrueFalseForm.class.getName()).log(java.util.logging.Level.SEVERE, null, ex);
-        } catch (InstantiationException ex) {
-            java.util.logging.Logger.getLogger(TrueFalseForm.class.getName()).log(java.util.logging.Level.SEVERE, null, ex);
-        } catch (IllegalAccessException ex) {
-            java.util.logging.Logger.getLogger(TrueFalseForm.class.getName()).log(java.util.logging.Level.SEVERE, null, ex);
-        } catch (javax.swing.UnsupportedLookAndFeelException ex) {
-            java.util.logging.Logger.getLogger(TrueFalseForm.class.getName()).log(java.util.logging.Level.SEVERE, null, ex);
-        }
-        //</editor-fold>
-
-    }
-
     // Variables declaration - do not modify//GEN-BEGIN:variables
     private javax.swing.JPanel jPanelBackground;
     private javax.swing.JScrollPane jScrollPane1;